@@ -36,6 +36,8 @@ public enum CastleZone
 	public static final Seq<CastleZone> ALL = Seq.of(values());
 
 	public final Square kingSource, kingTarget, rookSource, rookTarget;
+	/** The bit representing the right to castle in this zone in a mask of rights. */
+	public final int mask;
 
 	private CastleZone(Square kingSource, Square kingTarget, Square rookSource, Square rookTarget)
 	{
@@ -43,6 +45,7 @@ public enum CastleZone
 		this.kingTarget = kingTarget;
 		this.rookSource = rookSource;
 		this.rookTarget = rookTarget;
+		this.mask = 1 << ordinal();
 	}
 
 	public boolean isWhiteZone()
@@ -80,7 +80,7 @@ public enum Square
 
 	public static Square of(int index)
 	{
-		return values()[index];
+		return ALL.get(index);
 	}
 
 	public static Square fromRankAndFileIndices(int rankIndex, int fileIndex)
@@ -4,7 +4,7 @@
 package jenjinn.bitboards;
 
 import static java.lang.Long.bitCount;
-import static jenjinn.bitboards.BitboardUtils.bitboardsIntersect;
+import static jenjinn.bitboards.BitboardUtils.lowestSquare;
 
 import java.util.NoSuchElementException;
 import java.util.OptionalInt;
@@ -19,34 +19,27 @@ import jflow.iterators.Flow;
  */
 public final class BitboardIterator extends AbstractFlow<Square>
 {
-	private final long source;
-	private int cached = -1, elementsReturned = 0;
+	private long remaining;
 
 	public BitboardIterator(long source) 
 	{
 		super(OptionalInt.of(bitCount(source)));
-		this.source = source;
+		this.remaining = source;
 	}
 
 	@Override
 	public boolean hasNext()
 	{
-		return elementsReturned < size.getAsInt();
+		return remaining != 0;
 	}
 
 	@Override
 	public Square next()
 	{
 		if (hasNext()) {
-			int loopStart = cached < 0 ? 0 : cached + 1;
-			for (int i = loopStart; i < 64; i++) {
-				if (bitboardsIntersect(1L << i, source)) {
-					cached = i;
-					elementsReturned++;
-					return Square.of(cached);
-				}
-			}
-			throw new AssertionError();
+			Square next = lowestSquare(remaining);
+			remaining &= remaining - 1;
+			return next;
 		}
 		else {
 			throw new NoSuchElementException();
@@ -18,6 +18,24 @@ public final class BitboardUtils
 		return (bitboardA & bitboardB) != 0;
 	}
 
+	/**
+	 * Together with clearing the lowest set bit this gives an allocation free
+	 * iteration over the squares of a bitboard:
+	 *
+	 * <pre>
+	 * for (long locs = bitboard; locs != 0; locs &amp;= locs - 1) {
+	 * 	Square loc = lowestSquare(locs);
+	 * }
+	 * </pre>
+	 *
+	 * @return the square with the smallest ordinal in the non-empty bitboard.
+	 */
+	public static Square lowestSquare(long bitboard)
+	{
+		assert bitboard != 0;
+		return Square.ALL.get(Long.numberOfTrailingZeros(bitboard));
+	}
+
 	public static long bitwiseOr(long... args)
 	{
 		long result = 0L;
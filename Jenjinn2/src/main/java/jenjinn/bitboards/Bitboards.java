@@ -128,7 +128,7 @@ public final class Bitboards
 	 */
 	public static long[] bishopOccupancyVariationAt(Square square)
 	{
-		return BitboardsImpl.BISHOP_OCCUPANCY_VARIATIONS[square.ordinal()];
+		return BitboardsImpl.OccupancyVariations.BISHOP[square.ordinal()];
 	}
 
 	/**
@@ -138,7 +138,7 @@ public final class Bitboards
 	 */
 	public static long[] rookOccupancyVariationAt(Square square)
 	{
-		return BitboardsImpl.ROOK_OCCUPANCY_VARIATIONS[square.ordinal()];
+		return BitboardsImpl.OccupancyVariations.ROOK[square.ordinal()];
 	}
 
 	/**
@@ -189,7 +189,8 @@ public final class Bitboards
 	 */
 	public static long bishopMagicMove(Square square, int magicIndex)
 	{
-		return BitboardsImpl.BISHOP_MAGIC_MOVES[square.ordinal()][magicIndex];
+		int offset = (int) BitboardsImpl.BISHOP_MAGIC_RECORDS[4 * square.ordinal() + 3];
+		return BitboardsImpl.BISHOP_MAGIC_MOVES[offset + magicIndex];
 	}
 
 	/**
@@ -199,6 +200,42 @@ public final class Bitboards
 	 */
 	public static long rookMagicMove(Square square, int magicIndex)
 	{
-		return BitboardsImpl.ROOK_MAGIC_MOVES[square.ordinal()][magicIndex];
+		int offset = (int) BitboardsImpl.ROOK_MAGIC_RECORDS[4 * square.ordinal() + 3];
+		return BitboardsImpl.ROOK_MAGIC_MOVES[offset + magicIndex];
+	}
+
+	// --------------------------------------------
+	// Section 4 - fast lookup
+
+	/**
+	 * Equivalent to finding the magic index from the occupancy mask, magic number
+	 * and bitshift of the square and then indexing the bishop move database, but
+	 * using the per square records and flattened database so the lookup touches
+	 * only one record and one table entry.
+	 *
+	 * @param occupied
+	 *            The locations of all pieces on the board.
+	 * @return the squares controlled by a bishop at the given square.
+	 */
+	public static long bishopControl(Square square, long occupied)
+	{
+		return magicLookup(BitboardsImpl.BISHOP_MAGIC_RECORDS, BitboardsImpl.BISHOP_MAGIC_MOVES,
+				square.ordinal(), occupied);
+	}
+
+	/**
+	 * As {@link #bishopControl(Square, long)} but for a rook.
+	 */
+	public static long rookControl(Square square, long occupied)
+	{
+		return magicLookup(BitboardsImpl.ROOK_MAGIC_RECORDS, BitboardsImpl.ROOK_MAGIC_MOVES,
+				square.ordinal(), occupied);
+	}
+
+	private static long magicLookup(long[] records, long[] moves, int squareIndex, long occupied)
+	{
+		int i = squareIndex << 2;
+		int magicIndex = (int) (((records[i] & occupied) * records[i + 1]) >>> records[i + 2]);
+		return moves[(int) records[i + 3] + magicIndex];
 	}
 }
@@ -17,8 +17,7 @@ import static jenjinn.bitboards.BitboardsInit2.generateBishopMagicBitshifts;
 import static jenjinn.bitboards.BitboardsInit2.generateBishopOccupancyMasks;
 import static jenjinn.bitboards.BitboardsInit2.generateRookMagicBitshifts;
 import static jenjinn.bitboards.BitboardsInit2.generateRookOccupancyMasks;
-import static jenjinn.bitboards.BitboardsInit3.generateBishopMagicMoveDatabase;
-import static jenjinn.bitboards.BitboardsInit3.generateRookMagicMoveDatabase;
+import static jenjinn.bitboards.BitboardsInit3.generateMagicRecords;
 
 /**
  * @author ThomasB
@@ -55,10 +54,6 @@ final class BitboardsImpl
 	static final long[][] EMPTY_BOARD_ATTACKSETS = generateAllEmptyBoardPieceAttackBitboards();
 
 	// Section 2
-	static final long[][] BISHOP_OCCUPANCY_VARIATIONS = generateAllBishopOccupancyVariations();
-
-	static final long[][] ROOK_OCCUPANCY_VARIATIONS = generateAllRookOccupancyVariations();;
-
 	static final long[] BISHOP_OCCUPANCY_MASKS = generateBishopOccupancyMasks();
 
 	static final long[] ROOK_OCCUPANCY_MASKS = generateRookOccupancyMasks();
@@ -108,7 +103,38 @@ final class BitboardsImpl
 			};
 
 	// Section 3
-	static final long[][] BISHOP_MAGIC_MOVES = generateBishopMagicMoveDatabase();
+	/*
+	 * For each square in turn {occupancy mask, magic number, bitshift, offset of
+	 * the square's entries in the move database}.
+	 */
+	static final long[] BISHOP_MAGIC_RECORDS = generateMagicRecords(
+			BISHOP_OCCUPANCY_MASKS, BISHOP_MAGIC_NUMBERS, BISHOP_MAGIC_BITSHIFTS);
+
+	static final long[] ROOK_MAGIC_RECORDS = generateMagicRecords(
+			ROOK_OCCUPANCY_MASKS, ROOK_MAGIC_NUMBERS, ROOK_MAGIC_BITSHIFTS);
+
+	/*
+	 * The move databases of all squares laid end to end, read from the database
+	 * resource if it is available since generating them is slow.
+	 */
+	static final long[] BISHOP_MAGIC_MOVES, ROOK_MAGIC_MOVES;
+
+	static {
+		MagicDatabase database = MagicDatabase.loadOrGenerate();
+		BISHOP_MAGIC_MOVES = database.bishopMoves;
+		ROOK_MAGIC_MOVES = database.rookMoves;
+	}
+
+	/**
+	 * All occupancy variations for each square, these are only needed to generate
+	 * the move databases so are not computed until first use.
+	 */
+	static final class OccupancyVariations
+	{
+		private OccupancyVariations() {}
+
+		static final long[][] BISHOP = generateAllBishopOccupancyVariations();
 
-	static final long[][] ROOK_MAGIC_MOVES = generateRookMagicMoveDatabase();
+		static final long[][] ROOK = generateAllRookOccupancyVariations();
+	}
 }
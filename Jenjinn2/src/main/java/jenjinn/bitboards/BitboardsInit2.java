@@ -10,7 +10,6 @@ import jenjinn.base.Dir;
 import jenjinn.base.Square;
 import jenjinn.pieces.PieceMovementDirs;
 import jflow.iterators.factories.Iter;
-import jflow.iterators.factories.IterRange;
 import jflow.iterators.misc.ArrayUtils;
 import jflow.seq.Seq;
 
@@ -42,13 +41,28 @@ final class BitboardsInit2
 	}
 
 	static long[] calculateOccupancyVariations(Square startSq, Seq<Dir> movementDirections)
+	{
+		return foldedPowerset(ArrayUtils.longMap(s -> s.bitboard, findRelevantSquares(startSq, movementDirections)));
+	}
+
+	static long calculateOccupancyMask(Square startSq, Seq<Dir> movementDirections)
+	{
+		return BitboardUtils.bitwiseOr(findRelevantSquares(startSq, movementDirections));
+	}
+
+	/**
+	 * @return the squares whose occupancy can affect the control of a sliding
+	 *         piece, that is those it can move to on an empty board except the
+	 *         last in each direction.
+	 */
+	private static List<Square> findRelevantSquares(Square startSq, Seq<Dir> movementDirections)
 	{
 		List<Square> relevantSquares = new ArrayList<>();
 		for (Dir dir : movementDirections) {
 			int numOfSqsLeft = startSq.getNumberOfSquaresLeft(dir);
 			relevantSquares.addAll(startSq.getAllSquares(asList(dir), max(numOfSqsLeft - 1, 0)).toList());
 		}
-		return foldedPowerset(ArrayUtils.longMap(s -> s.bitboard, relevantSquares));
+		return relevantSquares;
 	}
 	
 	static long[] foldedPowerset(long[] src)
@@ -66,14 +80,12 @@ final class BitboardsInit2
 
 	static long[] generateRookOccupancyMasks()
 	{
-		long[][] rov = generateAllRookOccupancyVariations();
-		return IterRange.to(64).mapToLong(i -> rov[i][rov[i].length - 1]).toArray();
+		return Square.ALL.flow().mapToLong(sq -> calculateOccupancyMask(sq, PieceMovementDirs.ROOK)).toArray();
 	}
 
 	static long[] generateBishopOccupancyMasks()
 	{
-		long[][] bov = generateAllBishopOccupancyVariations();
-		return IterRange.to(64).mapToLong(i -> bov[i][bov[i].length - 1]).toArray();
+		return Square.ALL.flow().mapToLong(sq -> calculateOccupancyMask(sq, PieceMovementDirs.BISHOP)).toArray();
 	}
 
 	static int[] generateRookMagicBitshifts()
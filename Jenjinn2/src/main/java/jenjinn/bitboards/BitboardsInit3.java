@@ -19,22 +19,22 @@ import jflow.seq.Seq;
  */
 final class BitboardsInit3
 {
-	static long[][] generateRookMagicMoveDatabase()
+	static long[] generateRookMagicMoveDatabase()
 	{
-		return generateMagicMoveDatabase(
-				BitboardsImpl.ROOK_OCCUPANCY_VARIATIONS,
+		return flattenMagicMoveDatabase(generateMagicMoveDatabase(
+				BitboardsImpl.OccupancyVariations.ROOK,
 				BitboardsImpl.ROOK_MAGIC_NUMBERS,
 				BitboardsImpl.ROOK_MAGIC_BITSHIFTS,
-				PieceMovementDirs.ROOK);
+				PieceMovementDirs.ROOK));
 	}
 
-	static long[][] generateBishopMagicMoveDatabase()
+	static long[] generateBishopMagicMoveDatabase()
 	{
-		return generateMagicMoveDatabase(
-				BitboardsImpl.BISHOP_OCCUPANCY_VARIATIONS,
+		return flattenMagicMoveDatabase(generateMagicMoveDatabase(
+				BitboardsImpl.OccupancyVariations.BISHOP,
 				BitboardsImpl.BISHOP_MAGIC_NUMBERS,
 				BitboardsImpl.BISHOP_MAGIC_BITSHIFTS,
-				PieceMovementDirs.BISHOP);
+				PieceMovementDirs.BISHOP));
 	}
 
 	static long[][] generateMagicMoveDatabase(long[][] occupancyVariations, long[] magicNumbers, 
@@ -56,6 +56,45 @@ final class BitboardsInit3
 		return magicMoveDatabase;
 	}
 
+	/**
+	 * @return the magic move databases of all squares laid end to end.
+	 */
+	static long[] flattenMagicMoveDatabase(long[][] magicMoveDatabase)
+	{
+		int totalSize = 0;
+		for (long[] squareDatabase : magicMoveDatabase) {
+			totalSize += squareDatabase.length;
+		}
+		long[] flattened = new long[totalSize];
+		int offset = 0;
+		for (long[] squareDatabase : magicMoveDatabase) {
+			System.arraycopy(squareDatabase, 0, flattened, offset, squareDatabase.length);
+			offset += squareDatabase.length;
+		}
+		return flattened;
+	}
+
+	/**
+	 * @return for each square in turn the four values {occupancy mask, magic
+	 *         number, bitshift, offset of the square's moves in the flattened
+	 *         database} so that everything needed to find the square's entry lies
+	 *         in a single cache line.
+	 */
+	static long[] generateMagicRecords(long[] occupancyMasks, long[] magicNumbers, int[] magicBitshifts)
+	{
+		long[] records = new long[4 * 64];
+		int offset = 0;
+		for (int i = 0; i < 64; i++) {
+			records[4 * i] = occupancyMasks[i];
+			records[4 * i + 1] = magicNumbers[i];
+			records[4 * i + 2] = magicBitshifts[i];
+			records[4 * i + 3] = offset;
+			// One entry for each occupancy variation of the square.
+			offset += 1 << (64 - magicBitshifts[i]);
+		}
+		return records;
+	}
+
 	static long findControlSetFromOccupancyVariation(Square startSq, long occVar, Seq<Dir> movementDirections)
 	{
 		return bitwiseOr(movementDirections.flow()
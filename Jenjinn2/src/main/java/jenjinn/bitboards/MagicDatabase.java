@@ -0,0 +1,179 @@
+/**
+ *
+ */
+package jenjinn.bitboards;
+
+import static jenjinn.bitboards.BitboardsInit3.generateBishopMagicMoveDatabase;
+import static jenjinn.bitboards.BitboardsInit3.generateRookMagicMoveDatabase;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The flattened magic move databases of the bishop and rook. Generating these
+ * by brute force dominates the time taken to initialise the bitboards so they
+ * are written to a binary resource at build time by running this class and
+ * bulk read at startup. If the resource is missing or was written with
+ * different magic numbers the databases are generated instead, as they are
+ * when the system property {@value #GENERATE_PROPERTY} is set to true.
+ *
+ * <p>
+ * The resource is big endian and consists of a four byte identifier and an int
+ * version followed by a section for the bishop and then the rook, each made of
+ * the 64 occupancy masks, the 64 magic numbers, the 64 int bitshifts, the int
+ * length of the database and then the database itself.
+ *
+ * @author ThomasB
+ */
+public final class MagicDatabase
+{
+	public static final String GENERATE_PROPERTY = "jenjinn.bitboards.generatemagics";
+
+	static final String RESOURCE_NAME = "magicdatabase";
+
+	private static final int IDENTIFIER = 0x4A4D4442; // "JMDB"
+	private static final int VERSION = 1;
+
+	final long[] bishopMoves, rookMoves;
+
+	MagicDatabase(long[] bishopMoves, long[] rookMoves)
+	{
+		this.bishopMoves = bishopMoves;
+		this.rookMoves = rookMoves;
+	}
+
+	static MagicDatabase loadOrGenerate()
+	{
+		if (!Boolean.getBoolean(GENERATE_PROPERTY)) {
+			try (InputStream resource = MagicDatabase.class.getResourceAsStream(RESOURCE_NAME)) {
+				MagicDatabase loaded = resource == null ? null : read(resource);
+				if (loaded != null) {
+					return loaded;
+				}
+			}
+			catch (IOException e) {
+				// Fall through to generating the databases.
+			}
+		}
+		return generate();
+	}
+
+	static MagicDatabase generate()
+	{
+		return new MagicDatabase(generateBishopMagicMoveDatabase(), generateRookMagicMoveDatabase());
+	}
+
+	/**
+	 * @return the databases in the given stream or null if they were written
+	 *         with different masks, magic numbers or bitshifts to those in
+	 *         {@link BitboardsImpl}.
+	 */
+	static MagicDatabase read(InputStream in) throws IOException
+	{
+		ByteBuffer buffer = ByteBuffer.wrap(readAllBytes(in));
+		if (buffer.remaining() < 8 || buffer.getInt() != IDENTIFIER || buffer.getInt() != VERSION) {
+			throw new IOException("Not a magic database");
+		}
+		long[] bishopMoves, rookMoves;
+		try {
+			bishopMoves = readSection(buffer, BitboardsImpl.BISHOP_OCCUPANCY_MASKS,
+					BitboardsImpl.BISHOP_MAGIC_NUMBERS, BitboardsImpl.BISHOP_MAGIC_BITSHIFTS);
+			rookMoves = readSection(buffer, BitboardsImpl.ROOK_OCCUPANCY_MASKS,
+					BitboardsImpl.ROOK_MAGIC_NUMBERS, BitboardsImpl.ROOK_MAGIC_BITSHIFTS);
+		}
+		catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException e) {
+			throw new IOException("Truncated magic database", e);
+		}
+		return bishopMoves == null || rookMoves == null ? null : new MagicDatabase(bishopMoves, rookMoves);
+	}
+
+	private static long[] readSection(ByteBuffer buffer, long[] masks, long[] magics, int[] bitshifts)
+	{
+		long[] storedMasks = new long[64], storedMagics = new long[64];
+		int[] storedBitshifts = new int[64];
+		buffer.asLongBuffer().get(storedMasks);
+		buffer.position(buffer.position() + 8 * 64);
+		buffer.asLongBuffer().get(storedMagics);
+		buffer.position(buffer.position() + 8 * 64);
+		buffer.asIntBuffer().get(storedBitshifts);
+		buffer.position(buffer.position() + 4 * 64);
+		long[] moves = new long[buffer.getInt()];
+		buffer.asLongBuffer().get(moves);
+		buffer.position(buffer.position() + 8 * moves.length);
+		boolean matches = Arrays.equals(masks, storedMasks)
+				&& Arrays.equals(magics, storedMagics)
+				&& Arrays.equals(bitshifts, storedBitshifts);
+		return matches ? moves : null;
+	}
+
+	private static byte[] readAllBytes(InputStream in) throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 20);
+		byte[] chunk = new byte[1 << 16];
+		int n;
+		while ((n = in.read(chunk)) > 0) {
+			out.write(chunk, 0, n);
+		}
+		return out.toByteArray();
+	}
+
+	void write(OutputStream out) throws IOException
+	{
+		DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+		data.writeInt(IDENTIFIER);
+		data.writeInt(VERSION);
+		writeSection(data, BitboardsImpl.BISHOP_OCCUPANCY_MASKS, BitboardsImpl.BISHOP_MAGIC_NUMBERS,
+				BitboardsImpl.BISHOP_MAGIC_BITSHIFTS, bishopMoves);
+		writeSection(data, BitboardsImpl.ROOK_OCCUPANCY_MASKS, BitboardsImpl.ROOK_MAGIC_NUMBERS,
+				BitboardsImpl.ROOK_MAGIC_BITSHIFTS, rookMoves);
+		data.flush();
+	}
+
+	private static void writeSection(DataOutputStream data, long[] masks, long[] magics, int[] bitshifts,
+			long[] moves) throws IOException
+	{
+		for (long mask : masks) {
+			data.writeLong(mask);
+		}
+		for (long magic : magics) {
+			data.writeLong(magic);
+		}
+		for (int bitshift : bitshifts) {
+			data.writeInt(bitshift);
+		}
+		data.writeInt(moves.length);
+		for (long move : moves) {
+			data.writeLong(move);
+		}
+	}
+
+	/**
+	 * Generates the databases and writes them to the file at the given path, this
+	 * is run by the build to produce the resource.
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		if (args.length != 1) {
+			throw new IllegalArgumentException("Expected the output path only");
+		}
+		// Make sure a stale resource on the classpath is not copied.
+		System.setProperty(GENERATE_PROPERTY, "true");
+		File output = new File(args[0]);
+		if (output.getParentFile() != null) {
+			output.getParentFile().mkdirs();
+		}
+		MagicDatabase database = new MagicDatabase(BitboardsImpl.BISHOP_MAGIC_MOVES, BitboardsImpl.ROOK_MAGIC_MOVES);
+		try (OutputStream out = new FileOutputStream(output)) {
+			database.write(out);
+		}
+	}
+}
@@ -0,0 +1,171 @@
+/**
+ *
+ */
+package jenjinn.boardstate;
+
+import static jenjinn.bitboards.BitboardUtils.bitboardsIntersect;
+import static jenjinn.bitboards.BitboardUtils.lowestSquare;
+import static jenjinn.bitboards.Bitboards.fileBitboard;
+import static jenjinn.bitboards.Bitboards.rankBitboard;
+
+import jenjinn.base.Side;
+import jenjinn.base.Square;
+import jenjinn.pieces.ChessPieces;
+import jenjinn.pieces.Piece;
+
+/**
+ * Lazily caches the squares controlled from each occupied square, by each piece
+ * type and by each side for the piece locations of one state. Every map is
+ * computed at most once between changes to the locations, the cache notices a
+ * change through {@link DetailedPieceLocations#getModificationCount()} so making
+ * or reversing a move invalidates it without any explicit call.
+ *
+ * @author ThomasB
+ */
+public final class AttackMaps
+{
+	private final DetailedPieceLocations pieceLocations;
+
+	private final long[] squareControl = new long[64];
+	private final long[] pieceControl = new long[12];
+	private final long[] sideControl = new long[2];
+	private long validSquares;
+	private int validPieces, validSides;
+	private int modificationCount;
+
+	private long hits = 0, misses = 0;
+
+	AttackMaps(DetailedPieceLocations pieceLocations)
+	{
+		this.pieceLocations = pieceLocations;
+		this.modificationCount = pieceLocations.getModificationCount();
+	}
+
+	/**
+	 * @return the squares controlled by the piece on the given square, which must
+	 *         be occupied.
+	 */
+	public long of(Square square)
+	{
+		checkValidity();
+		long bit = square.bitboard;
+		if ((validSquares & bit) != 0) {
+			hits++;
+			return squareControl[square.ordinal()];
+		}
+		misses++;
+		Piece piece = pieceLocations.getPieceAt(square);
+		long control = piece.getSquaresOfControl(square, pieceLocations.getWhiteLocations(),
+				pieceLocations.getBlackLocations());
+		squareControl[square.ordinal()] = control;
+		validSquares |= bit;
+		return control;
+	}
+
+	/**
+	 * @return the union of the squares controlled by each instance of the given
+	 *         piece.
+	 */
+	public long of(Piece piece)
+	{
+		checkValidity();
+		int bit = 1 << piece.ordinal();
+		if ((validPieces & bit) != 0) {
+			hits++;
+			return pieceControl[piece.ordinal()];
+		}
+		misses++;
+		long control = calculate(pieceLocations, piece);
+		pieceControl[piece.ordinal()] = control;
+		validPieces |= bit;
+		return control;
+	}
+
+	/**
+	 * @return the union of the squares controlled by each piece of the given
+	 *         side.
+	 */
+	public long of(Side side)
+	{
+		checkValidity();
+		int bit = 1 << side.ordinal();
+		if ((validSides & bit) != 0) {
+			hits++;
+			return sideControl[side.ordinal()];
+		}
+		misses++;
+		long control = 0L;
+		for (Piece piece : ChessPieces.of(side)) {
+			control |= of(piece);
+		}
+		sideControl[side.ordinal()] = control;
+		validSides |= bit;
+		return control;
+	}
+
+	private void checkValidity()
+	{
+		int currentCount = pieceLocations.getModificationCount();
+		if (currentCount != modificationCount) {
+			modificationCount = currentCount;
+			validSquares = 0L;
+			validPieces = 0;
+			validSides = 0;
+		}
+	}
+
+	/**
+	 * @return the number of maps requested which had already been computed.
+	 */
+	public long getHitCount()
+	{
+		return hits;
+	}
+
+	/**
+	 * @return the number of maps requested which had to be computed.
+	 */
+	public long getMissCount()
+	{
+		return misses;
+	}
+
+	public void resetStatistics()
+	{
+		hits = 0;
+		misses = 0;
+	}
+
+	/**
+	 * Calculates the union of the squares controlled by each instance of the
+	 * given piece from scratch, without consulting or populating any cache.
+	 */
+	public static long calculate(DetailedPieceLocations pieceLocs, Piece piece)
+	{
+		if (piece.isPawn()) {
+			return calculatePawn(pieceLocs, piece);
+		}
+		else {
+			long white = pieceLocs.getWhiteLocations(), black = pieceLocs.getBlackLocations();
+			long control = 0L;
+			for (long locs = pieceLocs.locationsOf(piece); locs != 0; locs &= locs - 1) {
+				control |= piece.getSquaresOfControl(lowestSquare(locs), white, black);
+			}
+			return control;
+		}
+	}
+
+	private static long calculatePawn(DetailedPieceLocations pieceLocs, Piece piece)
+	{
+		assert piece.isPawn();
+		long pawnLocs = pieceLocs.locationsOf(piece);
+		assert !bitboardsIntersect(pawnLocs, rankBitboard(0)) && !bitboardsIntersect(pawnLocs, rankBitboard(7));
+		long aFileRemover = ~fileBitboard(7), hFileRemover = ~fileBitboard(0);
+		if (piece.isWhite()) {
+			return ((pawnLocs & aFileRemover) << 9) | ((pawnLocs & hFileRemover) << 7);
+		}
+		else {
+			return ((pawnLocs & aFileRemover) >>> 7) | ((pawnLocs & hFileRemover) >>> 9);
+		}
+	}
+}
@@ -3,15 +3,39 @@
  */
 package jenjinn.boardstate;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.Set;
 
+import jenjinn.base.CastleZone;
 import jenjinn.base.DevelopmentPiece;
 import jenjinn.base.Side;
 import jenjinn.base.Square;
+import jenjinn.eval.DevelopmentEvaluator;
 import jenjinn.utils.BoardHasher;
 
 /**
+ * The complete mutable state of a chess game. The hash of the features which
+ * are not piece locations (side to move, enpassant file and castling rights) is
+ * kept up to date as they change, so together with the piece feature hash kept
+ * by the {@linkplain DetailedPieceLocations} the hash of the state is always
+ * available without calculation. Hence castling rights must be changed through
+ * this class rather than through the {@linkplain CastlingStatus} directly. The
+ * same goes for the developed pieces and the zones each side has castled in,
+ * whose development score is kept up to date alongside.
+ *
+ * <p>
+ * Each state also owns a stack of {@linkplain MoveReversalData} for the moves
+ * made on it without supplying their own, the records are created as the stack
+ * first grows and then reused so making and reversing moves this way allocates
+ * nothing. The stack is not copied with the state.
+ *
+ * <p>
+ * The squares controlled by each side, piece and occupied square are computed
+ * lazily at most once per position by the {@linkplain AttackMaps} of the state,
+ * which is not copied with it either.
+ *
  * @author ThomasB
  */
 public final class BoardState
@@ -19,12 +43,18 @@ public final class BoardState
 	private final HashCache hashCache;
 
 	private final DetailedPieceLocations pieceLocations;
+	private final AttackMaps attackMaps;
 	private final HalfMoveCounter gameClock;
 	private final CastlingStatus castlingStatus;
-	private final Set<DevelopmentPiece> developedPieces;
+	private final Set<DevelopmentPiece> developedPieces, developedPiecesView;
 
 	private Side activeSide;
 	private Square enpassantSquare;
+	private long nonPieceFeatureHash;
+	private int developmentEval;
+
+	private MoveReversalData[] undoStack = new MoveReversalData[16];
+	private int undoStackSize = 0;
 
 	public BoardState(
 			HashCache hashCache,
@@ -37,11 +67,16 @@ public final class BoardState
 	{
 		this.hashCache = hashCache;
 		this.pieceLocations = pieceLocations;
+		this.attackMaps = new AttackMaps(pieceLocations);
 		this.gameClock = gameClock;
 		this.castlingStatus = castlingStatus;
-		this.developedPieces = developedPieces;
+		this.developedPieces = EnumSet.noneOf(DevelopmentPiece.class);
+		this.developedPieces.addAll(developedPieces);
+		this.developedPiecesView = Collections.unmodifiableSet(this.developedPieces);
 		this.activeSide = activeSide;
 		this.enpassantSquare = enPassantSquare;
+		this.nonPieceFeatureHash = BoardHasher.INSTANCE.hashNonPieceFeatures(activeSide, enPassantSquare, castlingStatus);
+		this.developmentEval = DevelopmentEvaluator.evaluateFromScratch(developedPieces, castlingStatus);
 	}
 
 	public Side getActiveSide()
@@ -52,6 +87,7 @@ public final class BoardState
 	public void switchActiveSide()
 	{
 		this.activeSide = activeSide.otherSide();
+		nonPieceFeatureHash ^= BoardHasher.INSTANCE.getBlackToMoveFeature();
 	}
 
 	public Square getEnPassantSquare()
@@ -61,12 +97,72 @@ public final class BoardState
 
 	public void setEnPassantSquare(Square enPassantSquare)
 	{
+		if (enpassantSquare != null) {
+			nonPieceFeatureHash ^= BoardHasher.INSTANCE.getEnpassantFileFeature(enpassantSquare);
+		}
+		if (enPassantSquare != null) {
+			nonPieceFeatureHash ^= BoardHasher.INSTANCE.getEnpassantFileFeature(enPassantSquare);
+		}
 		this.enpassantSquare = enPassantSquare;
 	}
 
+	/**
+	 * @return an unmodifiable view of the developed pieces, they must be changed
+	 *         through this class.
+	 */
 	public Set<DevelopmentPiece> getDevelopedPieces()
 	{
-		return developedPieces;
+		return developedPiecesView;
+	}
+
+	/**
+	 * Adds the given piece, which must not yet be developed, to the developed
+	 * pieces.
+	 */
+	public void addDevelopedPiece(DevelopmentPiece piece)
+	{
+		boolean added = developedPieces.add(piece);
+		assert added;
+		developmentEval += DevelopmentEvaluator.getValueOf(piece);
+	}
+
+	/**
+	 * Removes the given piece, which must be developed, from the developed pieces.
+	 */
+	public void removeDevelopedPiece(DevelopmentPiece piece)
+	{
+		boolean removed = developedPieces.remove(piece);
+		assert removed;
+		developmentEval -= DevelopmentEvaluator.getValueOf(piece);
+	}
+
+	/**
+	 * Records that the side owning the given zone has castled there, that side
+	 * must not have castled already.
+	 */
+	public void setCastlingStatus(CastleZone zone)
+	{
+		castlingStatus.setCastlingStatus(zone);
+		developmentEval += DevelopmentEvaluator.getValueOf(zone);
+	}
+
+	/**
+	 * Reverses {@link #setCastlingStatus(CastleZone)}.
+	 */
+	public void removeCastlingStatus(CastleZone zone)
+	{
+		castlingStatus.removeCastlingStatus(zone);
+		developmentEval -= DevelopmentEvaluator.getValueOf(zone);
+	}
+
+	/**
+	 * @return the signed development score of the developed pieces and the
+	 *         castling statuses, see {@link DevelopmentEvaluator}.
+	 */
+	public int getDevelopmentEval()
+	{
+		assert developmentEval == DevelopmentEvaluator.evaluateFromScratch(developedPieces, castlingStatus);
+		return developmentEval;
 	}
 
 	public DetailedPieceLocations getPieceLocations()
@@ -74,11 +170,75 @@ public final class BoardState
 		return pieceLocations;
 	}
 
+	/**
+	 * @return the cached squares of control for the current piece locations.
+	 */
+	public AttackMaps getAttackMaps()
+	{
+		return attackMaps;
+	}
+
 	public CastlingStatus getCastlingStatus()
 	{
 		return castlingStatus;
 	}
 
+	/**
+	 * Removes the given mask of castling rights, all of which must currently be
+	 * held.
+	 */
+	public void removeCastlingRights(int rights)
+	{
+		castlingStatus.removeCastlingRights(rights);
+		nonPieceFeatureHash ^= BoardHasher.INSTANCE.getCastleRightsFeatures(rights);
+	}
+
+	/**
+	 * Adds the given mask of castling rights, none of which may currently be
+	 * held.
+	 */
+	public void addCastlingRights(int rights)
+	{
+		castlingStatus.addCastlingRights(rights);
+		nonPieceFeatureHash ^= BoardHasher.INSTANCE.getCastleRightsFeatures(rights);
+	}
+
+	/**
+	 * @return the record on top of the undo stack after pushing a fresh one, to
+	 *         be populated by making a move.
+	 */
+	public MoveReversalData pushReversalData()
+	{
+		if (undoStackSize == undoStack.length) {
+			undoStack = Arrays.copyOf(undoStack, 2 * undoStack.length);
+		}
+		MoveReversalData record = undoStack[undoStackSize];
+		if (record == null) {
+			record = new MoveReversalData();
+			undoStack[undoStackSize] = record;
+		}
+		undoStackSize++;
+		record.setConsumed(true);
+		return record;
+	}
+
+	/**
+	 * @return the record popped from the top of the undo stack, populated by the
+	 *         last move made with a record from {@link #pushReversalData()}.
+	 */
+	public MoveReversalData popReversalData()
+	{
+		if (undoStackSize == 0) {
+			throw new IllegalStateException("No move to reverse");
+		}
+		return undoStack[--undoStackSize];
+	}
+
+	public int getUndoStackSize()
+	{
+		return undoStackSize;
+	}
+
 	public HalfMoveCounter getHalfMoveClock()
 	{
 		return gameClock;
@@ -96,14 +256,14 @@ public final class BoardState
 
 	public long calculateHash()
 	{
-		return getPieceLocations().getSquarePieceFeatureHash()
-				^ BoardHasher.INSTANCE.hashNonPieceFeatures(activeSide, enpassantSquare, castlingStatus);
+		assert nonPieceFeatureHash == BoardHasher.INSTANCE.hashNonPieceFeatures(activeSide, enpassantSquare, castlingStatus);
+		return pieceLocations.getSquarePieceFeatureHash() ^ nonPieceFeatureHash;
 	}
 
 	public BoardState copy()
 	{
 		return new BoardState(
 				hashCache.copy(), pieceLocations.copy(), gameClock.copy(), castlingStatus.copy(),
-				EnumSet.copyOf(developedPieces), activeSide, enpassantSquare);
+				developedPieces, activeSide, enpassantSquare);
 	}
 }
@@ -11,25 +11,82 @@ import jenjinn.base.Side;
 import jflow.iterators.misc.Strings;
 
 /**
+ * The castling rights still held, as a mask of the {@link CastleZone#mask}
+ * bits, and the zone each side has castled in, if any.
+ *
  * @author ThomasB
  */
 public final class CastlingStatus
 {
-	private final Set<CastleZone> castlingRights;
+	public static final int NO_RIGHTS = 0;
+
+	private int castlingRights;
 	private CastleZone whiteCastlingStatus, blackCastlingStatus;
 
 	public CastlingStatus(Set<CastleZone> castlingRights, CastleZone whiteCastlingStatus, CastleZone blackCastlingStatus)
+	{
+		this(maskOf(castlingRights), whiteCastlingStatus, blackCastlingStatus);
+	}
+
+	public CastlingStatus(int castlingRights, CastleZone whiteCastlingStatus, CastleZone blackCastlingStatus)
 	{
 		this.castlingRights = castlingRights;
 		this.whiteCastlingStatus = whiteCastlingStatus;
 		this.blackCastlingStatus = blackCastlingStatus;
 	}
 
-	public Set<CastleZone> getCastlingRights()
+	public static int maskOf(Set<CastleZone> castlingRights)
+	{
+		int mask = NO_RIGHTS;
+		for (CastleZone zone : castlingRights) {
+			mask |= zone.mask;
+		}
+		return mask;
+	}
+
+	public int getCastlingRightsMask()
 	{
 		return castlingRights;
 	}
 
+	public boolean hasCastlingRight(CastleZone zone)
+	{
+		return (castlingRights & zone.mask) != 0;
+	}
+
+	/**
+	 * @return a new set of the castling rights currently held, changing it has no
+	 *         effect on this status.
+	 */
+	public Set<CastleZone> getCastlingRights()
+	{
+		Set<CastleZone> rights = EnumSet.noneOf(CastleZone.class);
+		for (CastleZone zone : CastleZone.ALL) {
+			if (hasCastlingRight(zone)) {
+				rights.add(zone);
+			}
+		}
+		return rights;
+	}
+
+	/**
+	 * Only to be called by {@link BoardState} which keeps the hash up to date.
+	 */
+	void removeCastlingRights(int rights)
+	{
+		assert (castlingRights & rights) == rights;
+		castlingRights &= ~rights;
+	}
+
+	/**
+	 * Only to be called by {@link BoardState} which keeps the hash up to date.
+	 */
+	void addCastlingRights(int rights)
+	{
+		assert (castlingRights & rights) == 0;
+		castlingRights |= rights;
+	}
+
 	public CastleZone getWhiteCastlingStatus()
 	{
 		return whiteCastlingStatus;
@@ -45,7 +102,11 @@ public final class CastlingStatus
 		return side.isWhite()? whiteCastlingStatus : blackCastlingStatus;
 	}
 
-	public void setCastlingStatus(CastleZone newStatus)
+	/**
+	 * Only to be called by {@link BoardState} which keeps the development score up
+	 * to date.
+	 */
+	void setCastlingStatus(CastleZone newStatus)
 	{
 		if (newStatus.isWhiteZone()) {
 			assert whiteCastlingStatus == null;
@@ -57,7 +118,11 @@ public final class CastlingStatus
 		}
 	}
 
-	public void removeCastlingStatus(CastleZone toRemove)
+	/**
+	 * Only to be called by {@link BoardState} which keeps the development score up
+	 * to date.
+	 */
+	void removeCastlingStatus(CastleZone toRemove)
 	{
 		if (toRemove.isWhiteZone()) {
 			assert toRemove == whiteCastlingStatus;
@@ -73,7 +138,7 @@ public final class CastlingStatus
 	public String toString()
 	{
 		return new StringBuilder("CastlingStatus[Castling rights: ")
-				.append(Strings.$(castlingRights))
+				.append(Strings.$(getCastlingRights()))
 				.append(", White status: ")
 				.append(Strings.$(whiteCastlingStatus))
 				.append(", Black status: ")
@@ -84,7 +149,7 @@ public final class CastlingStatus
 	
 	public CastlingStatus copy()
 	{
-		return new CastlingStatus(EnumSet.copyOf(castlingRights), whiteCastlingStatus, blackCastlingStatus);
+		return new CastlingStatus(castlingRights, whiteCastlingStatus, blackCastlingStatus);
 	}
 
 	/*
@@ -96,7 +161,7 @@ public final class CastlingStatus
 		int prime = 31;
 		int result = 1;
 		result = prime * result + ((blackCastlingStatus == null) ? 0 : blackCastlingStatus.hashCode());
-		result = prime * result + ((castlingRights == null) ? 0 : castlingRights.hashCode());
+		result = prime * result + castlingRights;
 		result = prime * result + ((whiteCastlingStatus == null) ? 0 : whiteCastlingStatus.hashCode());
 		return result;
 	}
@@ -113,10 +178,7 @@ public final class CastlingStatus
 		CastlingStatus other = (CastlingStatus) obj;
 		if (blackCastlingStatus != other.blackCastlingStatus)
 			return false;
-		if (castlingRights == null) {
-			if (other.castlingRights != null)
-				return false;
-		} else if (!castlingRights.equals(other.castlingRights))
+		if (castlingRights != other.castlingRights)
 			return false;
 		if (whiteCastlingStatus != other.whiteCastlingStatus)
 			return false;
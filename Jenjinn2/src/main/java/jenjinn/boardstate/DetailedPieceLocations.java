@@ -3,68 +3,99 @@
  */
 package jenjinn.boardstate;
 
+import static java.lang.Long.numberOfTrailingZeros;
 import static jenjinn.bitboards.BitboardUtils.bitboardsIntersect;
 
+import java.util.Arrays;
+
 import jenjinn.base.Side;
 import jenjinn.base.Square;
+import jenjinn.bitboards.BitboardIterator;
+import jenjinn.eval.PieceLocationEvaluator;
 import jenjinn.eval.piecesquaretables.PieceSquareTables;
-import jenjinn.pieces.ChessPieces;
 import jenjinn.pieces.Piece;
 import jenjinn.utils.BoardHasher;
 import jflow.iterators.Flow;
-import jflow.iterators.factories.Iter;
-import jflow.seq.Seq;
 
 /**
- * Handles piece locations as well as tracking the positional evaluation and hash arising
- * from (square, piece) features.
+ * Handles piece locations as well as tracking the positional evaluation, game phase
+ * material and hash arising from (square, piece) features. The locations of each piece are held as one bitboard,
+ * indexed by piece ordinal, so the squares of a piece can be iterated without allocation
+ * using {@link jenjinn.bitboards.BitboardUtils#lowestSquare(long)}. A mailbox holding the
+ * ordinal of the piece on each square is kept alongside so that finding the piece on a
+ * square doesn't require a search, as a consequence a captured piece must be removed
+ * before the capturing piece is added. Every addition or removal bumps a modification
+ * count which the {@linkplain AttackMaps} of a state check their cache against.
  *
  * @author ThomasB
  */
 public final class DetailedPieceLocations
 {
+	/**
+	 * Mailbox entries index into this array, the empty square entry maps to null.
+	 */
+	private static final byte NO_PIECE = 12;
+	private static final Piece[] MAILBOX_PIECES = Arrays.copyOf(Piece.values(), 13);
+
 	private long squarePieceFeatureHash;
 
-	private final Seq<LocationTracker> pieceLocations;
+	private final long[] pieceLocations;
+	private final byte[] mailbox = new byte[64];
 	private long whiteLocations, blackLocations;
 
 	private final PieceSquareTables midgameTables, endgameTables;
 	private int midgameEval = 0, endgameEval = 0;
+	private int phaseMaterial = 0;
+	private int modificationCount = 0;
 
+	/**
+	 * @param pieceLocations
+	 *            The locations of each of the twelve pieces indexed by ordinal,
+	 *            the array is copied.
+	 */
 	public DetailedPieceLocations(
-			Seq<LocationTracker> pieceLocations,
+			long[] pieceLocations,
 			PieceSquareTables midgameTables,
 			PieceSquareTables endgameTables)
 	{
-		if (pieceLocations.size() != 12) {
+		if (pieceLocations.length != 12) {
 			throw new IllegalArgumentException();
 		}
-		this.pieceLocations = pieceLocations;
-		this.whiteLocations = pieceLocations.flow().take(6).mapToLong(x -> x.allLocs()).fold(0L, (a, b) -> a | b);
-		this.blackLocations = pieceLocations.flow().drop(6).mapToLong(x -> x.allLocs()).fold(0L, (a, b) -> a | b);
+		this.pieceLocations = pieceLocations.clone();
+		for (int i = 0; i < 6; i++) {
+			whiteLocations |= pieceLocations[i];
+			blackLocations |= pieceLocations[i + 6];
+		}
+		Arrays.fill(mailbox, NO_PIECE);
+		for (int i = 0; i < 12; i++) {
+			for (long locs = pieceLocations[i]; locs != 0; locs &= locs - 1) {
+				if (mailbox[numberOfTrailingZeros(locs)] != NO_PIECE) {
+					throw new IllegalArgumentException("Two pieces share a square");
+				}
+				mailbox[numberOfTrailingZeros(locs)] = (byte) i;
+			}
+		}
 		this.midgameTables = midgameTables;
 		this.endgameTables = endgameTables;
 		this.midgameEval = midgameTables.evaluateLocations(pieceLocations);
 		this.endgameEval = endgameTables.evaluateLocations(pieceLocations);
+		for (int i = 0; i < 12; i++) {
+			phaseMaterial += Long.bitCount(pieceLocations[i]) * PieceLocationEvaluator.phaseValueOf(MAILBOX_PIECES[i]);
+		}
 		this.squarePieceFeatureHash = BoardHasher.INSTANCE.hashPieceLocations(pieceLocations);
 	}
 
-	public DetailedPieceLocations(
-			long[] pieceLocations,
-			PieceSquareTables midgameTables,
-			PieceSquareTables endgameTables)
-	{
-		this (Iter.overLongs(pieceLocations).mapToObject(LocationTracker::new).toSeq(),
-				midgameTables,
-				endgameTables);
-	}
-
 	public void addPieceAt(Square location, Piece pieceToAdd)
 	{
+		assert !bitboardsIntersect(pieceLocations[pieceToAdd.ordinal()], location.bitboard);
 		squarePieceFeatureHash ^= BoardHasher.INSTANCE.getSquarePieceFeature(location, pieceToAdd);
+		modificationCount++;
 		midgameEval += midgameTables.getLocationValue(pieceToAdd, location);
 		endgameEval += endgameTables.getLocationValue(pieceToAdd, location);
-		pieceLocations.get(pieceToAdd.ordinal()).addLoc(location);
+		phaseMaterial += PieceLocationEvaluator.phaseValueOf(pieceToAdd);
+		assert mailbox[location.ordinal()] == NO_PIECE : "Square " + location + " is occupied";
+		pieceLocations[pieceToAdd.ordinal()] ^= location.bitboard;
+		mailbox[location.ordinal()] = (byte) pieceToAdd.ordinal();
 		if (pieceToAdd.isWhite()) {
 			whiteLocations |= location.bitboard;
 		}
@@ -75,10 +106,14 @@ public final class DetailedPieceLocations
 
 	public void removePieceAt(Square location, Piece pieceToRemove)
 	{
+		assert bitboardsIntersect(pieceLocations[pieceToRemove.ordinal()], location.bitboard);
 		squarePieceFeatureHash ^= BoardHasher.INSTANCE.getSquarePieceFeature(location, pieceToRemove);
+		modificationCount++;
 		midgameEval -= midgameTables.getLocationValue(pieceToRemove, location);
 		endgameEval -= endgameTables.getLocationValue(pieceToRemove, location);
-		pieceLocations.get(pieceToRemove.ordinal()).removeLoc(location);
+		phaseMaterial -= PieceLocationEvaluator.phaseValueOf(pieceToRemove);
+		pieceLocations[pieceToRemove.ordinal()] ^= location.bitboard;
+		mailbox[location.ordinal()] = NO_PIECE;
 		if (pieceToRemove.isWhite()) {
 			whiteLocations ^= location.bitboard;
 		}
@@ -89,19 +124,19 @@ public final class DetailedPieceLocations
 
 	public Piece getPieceAt(Square square)
 	{
-		for (int i = 0; i < 12; i++) {
-			if (pieceLocations.get(i).contains(square)) {
-				return ChessPieces.fromIndex(i);
-			}
-		}
-		return null;
+		return MAILBOX_PIECES[mailbox[square.ordinal()]];
 	}
 
+	/**
+	 * @return the piece on the lowest square of the bitboard which is occupied,
+	 *         or null if there is no such square.
+	 */
 	public Piece getPieceAt(long bitboard)
 	{
-		for (int i = 0; i < 12; i++) {
-			if (bitboardsIntersect(pieceLocations.get(i).allLocs(), bitboard)) {
-				return ChessPieces.fromIndex(i);
+		for (long locs = bitboard; locs != 0; locs &= locs - 1) {
+			byte pieceIndex = mailbox[numberOfTrailingZeros(locs)];
+			if (pieceIndex != NO_PIECE) {
+				return MAILBOX_PIECES[pieceIndex];
 			}
 		}
 		return null;
@@ -109,13 +144,8 @@ public final class DetailedPieceLocations
 
 	public Piece getPieceAt(Square square, Side side)
 	{
-		int lowerBound = side.isWhite() ? 0 : 6, upperBound = lowerBound + 6;
-		for (int i = lowerBound; i < upperBound; i++) {
-			if (pieceLocations.get(i).contains(square)) {
-				return ChessPieces.fromIndex(i);
-			}
-		}
-		return null;
+		Piece piece = getPieceAt(square);
+		return piece != null && piece.getSide() == side ? piece : null;
 	}
 
 	public long getSideLocations(Side query)
@@ -140,17 +170,21 @@ public final class DetailedPieceLocations
 
 	public long locationsOf(Piece piece)
 	{
-		return pieceLocations.get(piece.ordinal()).allLocs();
+		return pieceLocations[piece.ordinal()];
 	}
 
 	public int pieceCountOf(Piece piece)
 	{
-		return pieceLocations.get(piece.ordinal()).pieceCount();
+		return Long.bitCount(pieceLocations[piece.ordinal()]);
 	}
 
+	/**
+	 * Allocates a flow, performance sensitive code should iterate over the
+	 * bitboard given by {@link #locationsOf(Piece)} instead.
+	 */
 	public Flow<Square> iterateLocs(Piece piece)
 	{
-		return pieceLocations.get(piece.ordinal()).iterator();
+		return BitboardIterator.from(pieceLocations[piece.ordinal()]);
 	}
 
 	public int getMidgameEval()
@@ -163,15 +197,32 @@ public final class DetailedPieceLocations
 		return endgameEval;
 	}
 
+	/**
+	 * @return the sum of the {@linkplain PieceLocationEvaluator#phaseValueOf(Piece)
+	 *         phase values} of every piece on the board.
+	 */
+	public int getPhaseMaterial()
+	{
+		return phaseMaterial;
+	}
+
 	public long getSquarePieceFeatureHash()
 	{
 		return squarePieceFeatureHash;
 	}
 
+	/**
+	 * @return a count which changes whenever a piece is added or removed, so
+	 *         anything derived from the locations can tell when it is stale.
+	 */
+	public int getModificationCount()
+	{
+		return modificationCount;
+	}
+
 	public DetailedPieceLocations copy()
 	{
-		Seq<LocationTracker> locTrackerCopy = pieceLocations.map(LocationTracker::copy);
-		return new DetailedPieceLocations(locTrackerCopy, midgameTables, endgameTables);
+		return new DetailedPieceLocations(pieceLocations, midgameTables, endgameTables);
 	}
 
 
@@ -185,7 +236,7 @@ public final class DetailedPieceLocations
 		result = prime * result + ((endgameTables == null) ? 0 : endgameTables.hashCode());
 		result = prime * result + midgameEval;
 		result = prime * result + ((midgameTables == null) ? 0 : midgameTables.hashCode());
-		result = prime * result + ((pieceLocations == null) ? 0 : pieceLocations.hashCode());
+		result = prime * result + Arrays.hashCode(pieceLocations);
 		result = prime * result + (int) (squarePieceFeatureHash ^ (squarePieceFeatureHash >>> 32));
 		result = prime * result + (int) (whiteLocations ^ (whiteLocations >>> 32));
 		return result;
@@ -216,10 +267,7 @@ public final class DetailedPieceLocations
 				return false;
 		} else if (!midgameTables.equals(other.midgameTables))
 			return false;
-		if (pieceLocations == null) {
-			if (other.pieceLocations != null)
-				return false;
-		} else if (!pieceLocations.equals(other.pieceLocations))
+		if (!Arrays.equals(pieceLocations, other.pieceLocations))
 			return false;
 		if (squarePieceFeatureHash != other.squarePieceFeatureHash)
 			return false;
@@ -0,0 +1,168 @@
+/**
+ *
+ */
+package jenjinn.boardstate;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import jenjinn.base.CastleZone;
+import jenjinn.base.DevelopmentPiece;
+import jenjinn.base.Side;
+import jenjinn.base.Square;
+import jenjinn.eval.piecesquaretables.PieceSquareTables;
+import jenjinn.pieces.Piece;
+import jenjinn.utils.BoardHasher;
+
+/**
+ * Constructs {@linkplain BoardState} instances from positions written in
+ * Forsyth-Edwards Notation. Since the notation records no history the hash
+ * cache of the constructed state only contains the current position and any
+ * piece away from its start square is considered developed.
+ *
+ * @author ThomasB
+ */
+public final class FenParser
+{
+	private static final String PIECE_CHARS = "PNBRQKpnbrqk";
+
+	private FenParser()
+	{
+	}
+
+	/**
+	 * @param fen
+	 *            A position in Forsyth-Edwards Notation, the half move clock and
+	 *            full move number fields may be omitted.
+	 * @return the state described by the notation.
+	 * @throws IllegalArgumentException
+	 *             if the notation is malformed.
+	 */
+	public static BoardState parse(String fen)
+	{
+		String[] fields = fen.trim().split("\\s+");
+		if (fields.length != 4 && fields.length != 6) {
+			throw new IllegalArgumentException(fen);
+		}
+		DetailedPieceLocations pieceLocations = new DetailedPieceLocations(parsePieceLocations(fields[0], fen),
+				PieceSquareTables.midgame(), PieceSquareTables.endgame());
+		Side activeSide = parseActiveSide(fields[1], fen);
+		CastlingStatus castlingStatus = new CastlingStatus(parseCastlingRights(fields[2], fen), null, null);
+		Square enpassantSquare = parseEnpassantSquare(fields[3], fen);
+		int halfMoveClock = fields.length == 6 ? parseNonNegative(fields[4], fen) : 0;
+		int fullMoveNumber = fields.length == 6 ? Math.max(1, parseNonNegative(fields[5], fen)) : 1;
+		int totalHalfMoves = 2 * (fullMoveNumber - 1) + (activeSide.isWhite() ? 0 : 1);
+
+		long hash = pieceLocations.getSquarePieceFeatureHash()
+				^ BoardHasher.INSTANCE.hashNonPieceFeatures(activeSide, enpassantSquare, castlingStatus);
+
+		return new BoardState(createHashCache(hash, totalHalfMoves), pieceLocations,
+				new HalfMoveCounter(halfMoveClock), castlingStatus, findDevelopedPieces(pieceLocations),
+				activeSide, enpassantSquare);
+	}
+
+	private static long[] parsePieceLocations(String placement, String fen)
+	{
+		String[] ranks = placement.split("/");
+		if (ranks.length != 8) {
+			throw new IllegalArgumentException(fen);
+		}
+		long[] locations = new long[12];
+		for (int i = 0; i < 8; i++) {
+			int rankIndex = 7 - i, fileIndex = 0;
+			for (char c : ranks[i].toCharArray()) {
+				if ('1' <= c && c <= '8') {
+					fileIndex += c - '0';
+				} else if (PIECE_CHARS.indexOf(c) >= 0 && fileIndex < 8) {
+					// Square ordinals run from h1 so the file index is reversed.
+					locations[PIECE_CHARS.indexOf(c)] |= 1L << (8 * rankIndex + 7 - fileIndex);
+					fileIndex++;
+				} else {
+					throw new IllegalArgumentException(fen);
+				}
+			}
+			if (fileIndex != 8) {
+				throw new IllegalArgumentException(fen);
+			}
+		}
+		if (Long.bitCount(locations[5]) != 1 || Long.bitCount(locations[11]) != 1) {
+			throw new IllegalArgumentException(fen);
+		}
+		return locations;
+	}
+
+	private static Side parseActiveSide(String side, String fen)
+	{
+		switch (side) {
+		case "w":
+			return Side.WHITE;
+		case "b":
+			return Side.BLACK;
+		default:
+			throw new IllegalArgumentException(fen);
+		}
+	}
+
+	private static Set<CastleZone> parseCastlingRights(String rights, String fen)
+	{
+		Set<CastleZone> parsed = EnumSet.noneOf(CastleZone.class);
+		if (!rights.equals("-")) {
+			for (char c : rights.toCharArray()) {
+				int zoneIndex = "KQkq".indexOf(c);
+				if (zoneIndex < 0 || !parsed.add(CastleZone.ALL.get(zoneIndex))) {
+					throw new IllegalArgumentException(fen);
+				}
+			}
+		}
+		return parsed;
+	}
+
+	private static Square parseEnpassantSquare(String square, String fen)
+	{
+		if (square.equals("-")) {
+			return null;
+		} else if (square.matches("^[a-h][36]$")) {
+			return Square.valueOf(square.toUpperCase());
+		} else {
+			throw new IllegalArgumentException(fen);
+		}
+	}
+
+	private static int parseNonNegative(String number, String fen)
+	{
+		if (!number.matches("^[0-9]+$")) {
+			throw new IllegalArgumentException(fen);
+		}
+		return Integer.parseInt(number);
+	}
+
+	/**
+	 * The cache is filled with distinct dummy values so that no repetition can be
+	 * detected until the game has progressed from the parsed position.
+	 */
+	private static HashCache createHashCache(long currentHash, int totalHalfMoves)
+	{
+		long[] cache = new long[HashCache.CACHE_SIZE];
+		for (int i = 0; i < cache.length; i++) {
+			cache[i] = i + 1;
+		}
+		cache[totalHalfMoves % HashCache.CACHE_SIZE] = currentHash;
+		return new HashCache(cache, totalHalfMoves);
+	}
+
+	private static Set<DevelopmentPiece> findDevelopedPieces(DetailedPieceLocations pieceLocations)
+	{
+		DetailedPieceLocations startLocations = StartStateGenerator.getStartLocations();
+		Set<DevelopmentPiece> developed = EnumSet.noneOf(DevelopmentPiece.class);
+		for (Square square : Square.ALL) {
+			DevelopmentPiece developmentPiece = DevelopmentPiece.fromStartSquare(square);
+			if (developmentPiece != null) {
+				Piece startPiece = startLocations.getPieceAt(square);
+				if ((pieceLocations.locationsOf(startPiece) & square.bitboard) == 0) {
+					developed.add(developmentPiece);
+				}
+			}
+		}
+		return developed;
+	}
+}
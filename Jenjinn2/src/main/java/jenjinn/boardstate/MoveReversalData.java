@@ -3,10 +3,6 @@
  */
 package jenjinn.boardstate;
 
-import java.util.EnumSet;
-import java.util.Set;
-
-import jenjinn.base.CastleZone;
 import jenjinn.base.DevelopmentPiece;
 import jenjinn.base.Square;
 import jenjinn.pieces.Piece;
@@ -26,7 +22,8 @@ public class MoveReversalData {
 	 */
 	private boolean consumed = true;
 
-	private Set<CastleZone> discardedCastlingRights = EnumSet.noneOf(CastleZone.class);
+	/** A mask of the castling rights removed by the move. */
+	private int discardedCastlingRights = CastlingStatus.NO_RIGHTS;
 	private Piece pieceTaken;
 	private DevelopmentPiece pieceDeveloped;
 	private Square discardedEnpassantSquare;
@@ -39,7 +36,7 @@ public class MoveReversalData {
 	public void reset()
 	{
 		consumed = true;
-		discardedCastlingRights = EnumSet.noneOf(CastleZone.class);
+		discardedCastlingRights = CastlingStatus.NO_RIGHTS;
 		pieceTaken = null;
 		pieceDeveloped = null;
 		discardedEnpassantSquare = null;
@@ -57,12 +54,12 @@ public class MoveReversalData {
 		this.consumed = consumed;
 	}
 
-	public Set<CastleZone> getDiscardedCastlingRights()
+	public int getDiscardedCastlingRights()
 	{
 		return discardedCastlingRights;
 	}
 
-	public void setDiscardedCastlingRights(Set<CastleZone> discardedCastlingRights)
+	public void setDiscardedCastlingRights(int discardedCastlingRights)
 	{
 		this.discardedCastlingRights = discardedCastlingRights;
 	}
@@ -5,11 +5,11 @@ package jenjinn.boardstate.calculators;
 
 import static java.lang.Math.abs;
 import static jenjinn.bitboards.BitboardUtils.bitboardsIntersect;
+import static jenjinn.bitboards.BitboardUtils.lowestSquare;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 import java.util.function.Predicate;
 
 import jenjinn.base.CastleZone;
@@ -18,8 +18,11 @@ import jenjinn.base.Side;
 import jenjinn.base.Square;
 import jenjinn.bitboards.BitboardIterator;
 import jenjinn.bitboards.Bitboards;
+import jenjinn.boardstate.AttackMaps;
 import jenjinn.boardstate.BoardState;
+import jenjinn.boardstate.CastlingStatus;
 import jenjinn.boardstate.DetailedPieceLocations;
+import jenjinn.moves.CastleMove;
 import jenjinn.moves.ChessMove;
 import jenjinn.moves.EnpassantMove;
 import jenjinn.moves.MoveCache;
@@ -29,7 +32,6 @@ import jenjinn.pieces.Piece;
 import jenjinn.utils.PieceSquarePair;
 import jflow.iterators.Flow;
 import jflow.iterators.factories.Iter;
-import jflow.iterators.misc.Pair;
 import jflow.seq.Seq;
 
 /**
@@ -54,6 +56,104 @@ public final class LegalMoves
 		return getLegalMoves(state, false);
 	}
 
+	/**
+	 * Checks whether a single move is legal in the given state without
+	 * generating the legal moves. Intended for moves recovered from some store
+	 * (e.g. the transposition table) which may not belong to the state.
+	 *
+	 * @param state
+	 *            The state in which the move would be made, it is not mutated.
+	 * @param move
+	 *            The candidate move for the active side.
+	 * @return true if the move is legal in the state, false otherwise.
+	 */
+	public static boolean isLegal(BoardState state, ChessMove move)
+	{
+		if (move instanceof CastleMove) {
+			return isLegalCastle(state, ((CastleMove) move).getWrappedZone());
+		}
+		Side active = state.getActiveSide();
+		DetailedPieceLocations pieceLocs = state.getPieceLocations();
+		long white = pieceLocs.getWhiteLocations(), black = pieceLocs.getBlackLocations();
+		Square source = move.getSource(), target = move.getTarget(), captureSquare = target;
+		Piece moving = pieceLocs.getPieceAt(source, active);
+		if (moving == null) {
+			return false;
+		} else if (move instanceof EnpassantMove) {
+			if (!moving.isPawn() || target != state.getEnPassantSquare()
+					|| !bitboardsIntersect(moving.getSquaresOfControl(source, white, black), target.bitboard)) {
+				return false;
+			}
+			captureSquare = ((EnpassantMove) move).getCapturedPawnSquare();
+		} else {
+			boolean promoting = moving.isPawn() && source.rank == active.penultimatePawnRank;
+			if (promoting != move instanceof PromotionMove
+					|| !bitboardsIntersect(moving.getMoves(source, white, black), target.bitboard)) {
+				return false;
+			}
+		}
+		long occupied = (white | black) & ~source.bitboard & ~captureSquare.bitboard | target.bitboard;
+		Piece activeKing = ChessPieces.of(active).last();
+		Square kingLoc = moving == activeKing ? target
+				: Square.ALL.get(Long.numberOfTrailingZeros(pieceLocs.locationsOf(activeKing)));
+		return !isAttacked(state, kingLoc, occupied, ~captureSquare.bitboard);
+	}
+
+	/**
+	 * Checks whether the active king is attacked by looking outwards from its
+	 * square, which is cheaper than computing the control of every passive piece.
+	 *
+	 * @param state
+	 *            The state to check, it is not mutated.
+	 * @return true if the active side is in check, false otherwise.
+	 */
+	public static boolean isInCheck(BoardState state)
+	{
+		DetailedPieceLocations pieceLocs = state.getPieceLocations();
+		long kingLoc = pieceLocs.locationsOf(ChessPieces.of(state.getActiveSide()).last());
+		return isAttacked(state, lowestSquare(kingLoc), pieceLocs.getAllLocations(), -1L);
+	}
+
+	private static boolean isLegalCastle(BoardState state, CastleZone zone)
+	{
+		Side active = state.getActiveSide();
+		CastlingStatus status = state.getCastlingStatus();
+		if (zone.isWhiteZone() != active.isWhite() || status.getStatusFor(active) != null
+				|| !status.hasCastlingRight(zone)) {
+			return false;
+		}
+		long occupied = state.getPieceLocations().getAllLocations();
+		if (bitboardsIntersect(zone.getRequiredFreeSquares(), occupied)) {
+			return false;
+		}
+		for (long uncontrolled = zone.getRequiredUncontrolledSquares(); uncontrolled != 0; uncontrolled &= uncontrolled - 1) {
+			Square square = Square.ALL.get(Long.numberOfTrailingZeros(uncontrolled));
+			if (isAttacked(state, square, occupied, -1L)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return whether any passive piece lying inside the mask attacks the given
+	 *         square when the board occupancy is as given.
+	 */
+	static boolean isAttacked(BoardState state, Square square, long occupied, long passiveMask)
+	{
+		DetailedPieceLocations pieceLocs = state.getPieceLocations();
+		Side active = state.getActiveSide();
+		Seq<Piece> activePieces = ChessPieces.of(active), passivePieces = ChessPieces.of(active.otherSide());
+		for (int i = 0; i < 6; i++) {
+			long attackerLocs = pieceLocs.locationsOf(passivePieces.get(i)) & passiveMask;
+			if (attackerLocs != 0 && bitboardsIntersect(
+					activePieces.get(i).getSquaresOfControl(square, occupied, 0L), attackerLocs)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	static Flow<ChessMove> getLegalMoves(BoardState state, boolean forceAttacks)
 	{
 		Side active = state.getActiveSide(), passive = active.otherSide();
@@ -61,8 +161,8 @@ public final class LegalMoves
 		long passivePieceLocs = pieceLocs.getSideLocations(passive);
 		Seq<Piece> activePieces = ChessPieces.of(active);
 		Piece activeKing = activePieces.last();
-		Square kingLoc = pieceLocs.iterateLocs(activeKing).next();
-		long passiveControl = SquareControl.calculate(state, passive);
+		Square kingLoc = lowestSquare(pieceLocs.locationsOf(activeKing));
+		long passiveControl = state.getAttackMaps().of(passive);
 		PinnedPieceCollection pinnedPieces = PinnedPieces.in(state);
 
 		boolean inCheck = bitboardsIntersect(passiveControl, kingLoc.bitboard);
@@ -112,8 +212,8 @@ public final class LegalMoves
 	{
 		Side activeSide = state.getActiveSide();
 		Predicate<CastleZone> sideFilter = activeSide.isWhite() ? z -> z.isWhiteZone() : z -> !z.isWhiteZone();
-		Set<CastleZone> allRights = state.getCastlingStatus().getCastlingRights();
-		Flow<CastleZone> availableRights = Iter.over(allRights).filter(sideFilter);
+		CastlingStatus status = state.getCastlingStatus();
+		Flow<CastleZone> availableRights = CastleZone.ALL.flow().filter(sideFilter).filter(status::hasCastlingRight);
 		long allPieces = state.getPieceLocations().getAllLocations();
 		Flow<CastleZone> legalAvailableRights = availableRights.filter(zone -> {
 			long reqClearArea = zone.getRequiredFreeSquares();
@@ -147,15 +247,20 @@ public final class LegalMoves
 
 		DetailedPieceLocations pieceLocs = state.getPieceLocations();
 		long white = pieceLocs.getWhiteLocations(), black = pieceLocs.getBlackLocations();
-		Pair<Seq<Square>, Seq<Square>> pinnedPartition = pieceLocs.iterateLocs(piece).toSeq()
-				.partition(pinnedPieces::containsLocation);
-		
-		Flow<ChessMove> pinnedContribution = pinnedPartition._1.flow().flatMap(square -> {
+		long pieceLocations = pieceLocs.locationsOf(piece);
+		long pinnedLocations = 0L;
+		for (long locs = pieceLocations; locs != 0; locs &= locs - 1) {
+			if (pinnedPieces.containsLocation(lowestSquare(locs))) {
+				pinnedLocations |= locs & -locs;
+			}
+		}
+
+		Flow<ChessMove> pinnedContribution = BitboardIterator.from(pinnedLocations).flatMap(square -> {
 			long areaCons = pinnedPieces.getConstraintAreaOfPieceAt(square) & overallAreaConstraint;
 			return bitboard2moves(piece, square, piece.getMoves(square, white, black) & areaCons);
 		});
 
-		Flow<ChessMove> notPinnedContributions = pinnedPartition._2.flow().flatMap(square -> {
+		Flow<ChessMove> notPinnedContributions = BitboardIterator.from(pieceLocations ^ pinnedLocations).flatMap(square -> {
 			long areaCons = overallAreaConstraint;
 			return bitboard2moves(piece, square, piece.getMoves(square, white, black) & areaCons);
 		});
@@ -182,7 +287,9 @@ public final class LegalMoves
 						else {
 							return false;
 						}
-					}).map(sq -> new EnpassantMove(sq, ep));
+					}).<ChessMove>map(sq -> new EnpassantMove(sq, ep))
+					// Removing both pawns from a rank may expose the king, which the pin check misses.
+					.filter(mv -> isLegal(state, mv));
 			return allContributions.append(epContribution);
 		} else {
 			return allContributions;
@@ -221,7 +328,8 @@ public final class LegalMoves
 					} else {
 						return false;
 					}
-				}).map(sourceSquare -> new EnpassantMove(sourceSquare, enpassantSquare));
+				}).<ChessMove>map(sourceSquare -> new EnpassantMove(sourceSquare, enpassantSquare))
+				.filter(mv -> isLegal(state, mv));
 	}
 
 	/**
@@ -247,9 +355,6 @@ public final class LegalMoves
 	 * at) which are directly attacking the king on the active side in the parameter
 	 * state. I.e. those which are causing check. There can be at most two such
 	 * pieces.
-	 *
-	 * TODO could optimize the pawn check and we don't need to consider passive
-	 * king.
 	 */
 	private static List<PieceSquarePair> getPassiveAttackersOfActiveKing(BoardState state)
 	{
@@ -257,16 +362,18 @@ public final class LegalMoves
 		DetailedPieceLocations pieceLocs = state.getPieceLocations();
 		Piece activeKing = ChessPieces.of(active).last();
 
-		long white = pieceLocs.getWhiteLocations(), black = pieceLocs.getBlackLocations();
+		AttackMaps attackMaps = state.getAttackMaps();
 		long kloc = pieceLocs.locationsOf(activeKing);
 
 		List<PieceSquarePair> attackers = new ArrayList<>(2);
 		PIECE_LOOP: for (Piece potentialAttacker : ChessPieces.of(active.otherSide())) {
-			Flow<Square> locs = pieceLocs.iterateLocs(potentialAttacker);
-			while (locs.hasNext()) {
-				Square loc = locs.next();
-				long attacks = potentialAttacker.getSquaresOfControl(loc, white, black);
-				if (bitboardsIntersect(attacks, kloc)) {
+			// The piece maps are already cached from computing the passive control.
+			if (!bitboardsIntersect(attackMaps.of(potentialAttacker), kloc)) {
+				continue;
+			}
+			for (long locs = pieceLocs.locationsOf(potentialAttacker); locs != 0; locs &= locs - 1) {
+				Square loc = lowestSquare(locs);
+				if (bitboardsIntersect(attackMaps.of(loc), kloc)) {
 					attackers.add(new PieceSquarePair(potentialAttacker, loc));
 					if (attackers.size() == 2) {
 						break PIECE_LOOP;
@@ -0,0 +1,267 @@
+/**
+ *
+ */
+package jenjinn.boardstate.calculators;
+
+import static java.lang.Long.bitCount;
+import static java.lang.Long.numberOfTrailingZeros;
+import static jenjinn.bitboards.BitboardUtils.bitboardsIntersect;
+import static jenjinn.bitboards.BitboardUtils.lowestSquare;
+
+import jenjinn.base.CastleZone;
+import jenjinn.base.Side;
+import jenjinn.base.Square;
+import jenjinn.boardstate.BoardState;
+import jenjinn.boardstate.CastlingStatus;
+import jenjinn.boardstate.DetailedPieceLocations;
+import jenjinn.moves.MoveCache;
+import jenjinn.moves.MoveConstants;
+import jenjinn.pieces.ChessPieces;
+import jenjinn.pieces.Piece;
+import jflow.seq.Seq;
+
+/**
+ * Generates the legal moves in a state as compact move encodings (see
+ * {@link jenjinn.moves.ChessMove#toCompactEncoding()}) written into a buffer
+ * supplied by the caller. Unlike {@link LegalMoves} no objects are created: the
+ * check and pin information needed to guarantee legality is computed once by
+ * {@link #initialise(BoardState)} after which the captures and quiet moves can
+ * be generated separately, so a search which finds a cutoff amongst the
+ * captures never generates the quiet moves.
+ *
+ * An instance holds the information for one state at a time so a search needs
+ * one per ply.
+ *
+ * @author ThomasB
+ */
+public final class MoveGenerator
+{
+	/**
+	 * An upper bound on the number of legal moves in any position.
+	 */
+	public static final int MAX_MOVES = 256;
+
+	private final long[] pinConstraints = new long[64];
+
+	private BoardState state;
+	private Seq<Piece> activePieces, passivePieces;
+	private long white, black, activeLocs, passiveLocs;
+	private Square kingLoc;
+	private long passiveControl, checkers, pinned, checkConstraint;
+
+	/**
+	 * Prepares this generator for producing the moves of the given state, the
+	 * state must not be mutated while this generator is in use.
+	 */
+	public void initialise(BoardState state)
+	{
+		this.state = state;
+		Side active = state.getActiveSide();
+		activePieces = ChessPieces.of(active);
+		passivePieces = ChessPieces.of(active.otherSide());
+
+		DetailedPieceLocations pieceLocs = state.getPieceLocations();
+		white = pieceLocs.getWhiteLocations();
+		black = pieceLocs.getBlackLocations();
+		activeLocs = active.isWhite() ? white : black;
+		passiveLocs = active.isWhite() ? black : white;
+
+		long kingBitboard = pieceLocs.locationsOf(activePieces.last());
+		kingLoc = lowestSquare(kingBitboard);
+
+		/*
+		 * The active king is removed from the board when computing the passive
+		 * control so that it cannot retreat along the line of a sliding check.
+		 */
+		long occupiedWithoutKing = (white | black) ^ kingBitboard;
+		Piece checker = null;
+		passiveControl = 0L;
+		checkers = 0L;
+		for (int i = 0; i < 6; i++) {
+			Piece piece = passivePieces.get(i);
+			for (long locs = pieceLocs.locationsOf(piece); locs != 0; locs &= locs - 1) {
+				Square loc = lowestSquare(locs);
+				long control = piece.getSquaresOfControl(loc, occupiedWithoutKing, 0L);
+				passiveControl |= control;
+				if (bitboardsIntersect(control, kingBitboard)) {
+					checkers |= loc.bitboard;
+					checker = piece;
+				}
+			}
+		}
+
+		if (checkers == 0) {
+			checkConstraint = -1L;
+		} else if (bitCount(checkers) == 1) {
+			Square checkerLoc = lowestSquare(checkers);
+			checkConstraint = checker.isSlidingPiece() ? cordBetween(kingLoc, checkerLoc) | checkers : checkers;
+		} else {
+			checkConstraint = 0L;
+		}
+
+		pinned = 0L;
+		Piece passiveQueen = passivePieces.get(4);
+		findPins(activePieces.get(2), passivePieces.get(2), passiveQueen);
+		findPins(activePieces.get(3), passivePieces.get(3), passiveQueen);
+	}
+
+	private void findPins(Piece rayPiece, Piece passiveRayPiece, Piece passiveQueen)
+	{
+		DetailedPieceLocations pieceLocs = state.getPieceLocations();
+		long rayPieces = pieceLocs.locationsOf(passiveRayPiece) | pieceLocs.locationsOf(passiveQueen);
+		// Rays from the king which pass through active pieces and stop at passive ones.
+		long pinners = rayPiece.getSquaresOfControl(kingLoc, passiveLocs, 0L) & rayPieces;
+		for (; pinners != 0; pinners &= pinners - 1) {
+			Square pinnerLoc = lowestSquare(pinners);
+			long between = cordBetween(kingLoc, pinnerLoc);
+			long blockers = between & activeLocs;
+			if (bitCount(blockers) == 1) {
+				pinned |= blockers;
+				pinConstraints[numberOfTrailingZeros(blockers)] = between | pinnerLoc.bitboard;
+			}
+		}
+	}
+
+	/**
+	 * @return the squares strictly between two squares which share a rank, file
+	 *         or diagonal.
+	 */
+	private static long cordBetween(Square a, Square b)
+	{
+		return MoveCache.getMove(a, b).getInducedCord() & ~(a.bitboard | b.bitboard);
+	}
+
+	public boolean isInCheck()
+	{
+		return checkers != 0;
+	}
+
+	/**
+	 * @return whether the active side has at least one legal move. The buffer is
+	 *         used as scratch space from the given start index.
+	 */
+	public boolean hasLegalMoves(int[] buffer, int start)
+	{
+		return generateCaptures(buffer, start) > start || generateQuiets(buffer, start) > start;
+	}
+
+	/**
+	 * Writes the encodings of all legal moves which capture a piece (including
+	 * enpassant and capturing promotions) into the buffer.
+	 *
+	 * @return the index after the last move written.
+	 */
+	public int generateCaptures(int[] buffer, int start)
+	{
+		int end = generatePieceMoves(buffer, start, passiveLocs);
+		Square enpassantSquare = state.getEnPassantSquare();
+		if (enpassantSquare != null && bitCount(checkers) < 2) {
+			end = generateEnpassant(buffer, end, enpassantSquare);
+		}
+		return end;
+	}
+
+	/**
+	 * Writes the encodings of all legal moves which do not capture a piece
+	 * (including castling and non-capturing promotions) into the buffer.
+	 *
+	 * @return the index after the last move written.
+	 */
+	public int generateQuiets(int[] buffer, int start)
+	{
+		int end = generatePieceMoves(buffer, start, ~(white | black));
+		if (checkers == 0) {
+			end = generateCastles(buffer, end);
+		}
+		return end;
+	}
+
+	private int generatePieceMoves(int[] buffer, int start, long targetArea)
+	{
+		DetailedPieceLocations pieceLocs = state.getPieceLocations();
+		int end = start;
+		if (checkConstraint != 0) {
+			long constrainedArea = targetArea & checkConstraint;
+			for (int i = 0; i < 5; i++) {
+				Piece piece = activePieces.get(i);
+				boolean promoting = piece.isPawn();
+				for (long locs = pieceLocs.locationsOf(piece); locs != 0; locs &= locs - 1) {
+					int source = numberOfTrailingZeros(locs);
+					Square loc = Square.ALL.get(source);
+					long moves = piece.getMoves(loc, white, black) & constrainedArea;
+					if (bitboardsIntersect(pinned, loc.bitboard)) {
+						moves &= pinConstraints[source];
+					}
+					if (promoting && loc.rank == state.getActiveSide().penultimatePawnRank) {
+						end = writePromotions(buffer, end, source, moves);
+					} else {
+						end = writeStandard(buffer, end, source, moves);
+					}
+				}
+			}
+		}
+		long kingMoves = activePieces.last().getMoves(kingLoc, white, black) & targetArea & ~passiveControl;
+		return writeStandard(buffer, end, kingLoc.ordinal(), kingMoves);
+	}
+
+	private int generateEnpassant(int[] buffer, int start, Square enpassantSquare)
+	{
+		int end = start;
+		DetailedPieceLocations pieceLocs = state.getPieceLocations();
+		// Squares from which an active pawn attacks the enpassant square.
+		long sources = passivePieces.head().getSquaresOfControl(enpassantSquare, 0L, 0L)
+				& pieceLocs.locationsOf(activePieces.head());
+		int captureOffset = state.getActiveSide().isWhite() ? -8 : 8;
+		long captured = Square.ALL.get(enpassantSquare.ordinal() + captureOffset).bitboard;
+		for (; sources != 0; sources &= sources - 1) {
+			int source = numberOfTrailingZeros(sources);
+			long occupied = ((white | black) ^ (1L << source) ^ captured) | enpassantSquare.bitboard;
+			if (!LegalMoves.isAttacked(state, kingLoc, occupied, ~captured)) {
+				buffer[end++] = MoveCache.encode(MoveConstants.ENPASSANT_FLAG, source, enpassantSquare.ordinal());
+			}
+		}
+		return end;
+	}
+
+	private int generateCastles(int[] buffer, int start)
+	{
+		int end = start;
+		Side active = state.getActiveSide();
+		CastlingStatus status = state.getCastlingStatus();
+		if (status.getStatusFor(active) == null) {
+			long occupied = white | black;
+			for (CastleZone zone : CastleZone.ALL) {
+				if (zone.isWhiteZone() == active.isWhite()
+						&& status.hasCastlingRight(zone)
+						&& !bitboardsIntersect(zone.getRequiredFreeSquares(), occupied)
+						&& !bitboardsIntersect(zone.getRequiredUncontrolledSquares(), passiveControl)) {
+					buffer[end++] = MoveCache.encode(MoveConstants.CASTLE_FLAG, zone.kingSource.ordinal(),
+							zone.kingTarget.ordinal());
+				}
+			}
+		}
+		return end;
+	}
+
+	private static int writeStandard(int[] buffer, int start, int source, long targets)
+	{
+		int end = start;
+		for (; targets != 0; targets &= targets - 1) {
+			buffer[end++] = MoveCache.encode(MoveConstants.STANDARD_FLAG, source, numberOfTrailingZeros(targets));
+		}
+		return end;
+	}
+
+	private static int writePromotions(int[] buffer, int start, int source, long targets)
+	{
+		int end = start;
+		for (; targets != 0; targets &= targets - 1) {
+			int target = numberOfTrailingZeros(targets);
+			// Queen first as it is by far the most likely to be best.
+			for (int result = 3; result >= 0; result--) {
+				buffer[end++] = MoveCache.encode(MoveConstants.PROMOTION_FLAG + result, source, target);
+			}
+		}
+		return end;
+	}
+}
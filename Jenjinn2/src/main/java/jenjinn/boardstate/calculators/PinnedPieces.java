@@ -5,12 +5,12 @@ package jenjinn.boardstate.calculators;
 
 import static java.lang.Long.bitCount;
 import static jenjinn.bitboards.BitboardUtils.bitboardsIntersect;
+import static jenjinn.bitboards.BitboardUtils.lowestSquare;
 import static jenjinn.bitboards.Bitboards.emptyBoardAttackset;
 import static jenjinn.moves.MoveCache.getMove;
 
 import jenjinn.base.Side;
 import jenjinn.base.Square;
-import jenjinn.bitboards.BitboardIterator;
 import jenjinn.boardstate.BoardState;
 import jenjinn.boardstate.DetailedPieceLocations;
 import jenjinn.pieces.ChessPieces;
@@ -42,7 +42,7 @@ public final class PinnedPieces
 		long activeLocs = pieceLocs.getSideLocations(active), allLocs = pieceLocs.getAllLocations();
 
 		Piece activeKing = ChessPieces.of(active).last();
-		Square kingLoc = pieceLocs.iterateLocs(activeKing).next();
+		Square kingLoc = lowestSquare(pieceLocs.locationsOf(activeKing));
 		long kloc = kingLoc.bitboard;
 
 		return ChessPieces.pinnersOn(passive).flow()
@@ -61,7 +61,7 @@ public final class PinnedPieces
 				.filter(cord -> bitCount(cord & activeLocs) == 1 && bitCount(cord & allLocs) == 2)
 				/* This active piece must therefore be pinned. */
 				.mapToObject(cord -> {
-					Square pieceLoc = BitboardIterator.from(cord & activeLocs).next();
+					Square pieceLoc = lowestSquare(cord & activeLocs);
 					return new PinnedPiece(pieceLoc, cord);
 				})
 				.build(PinnedPieceCollection::new);
@@ -3,17 +3,16 @@
  */
 package jenjinn.boardstate.calculators;
 
-import static jenjinn.bitboards.BitboardUtils.bitboardsIntersect;
-import static jenjinn.bitboards.Bitboards.fileBitboard;
-import static jenjinn.bitboards.Bitboards.rankBitboard;
-
 import jenjinn.base.Side;
+import jenjinn.boardstate.AttackMaps;
 import jenjinn.boardstate.BoardState;
-import jenjinn.boardstate.DetailedPieceLocations;
 import jenjinn.pieces.ChessPieces;
 import jenjinn.pieces.Piece;
 
 /**
+ * Calculates squares of control from scratch, code which may ask more than once
+ * for the same position should use {@link BoardState#getAttackMaps()} instead.
+ *
  * @author ThomasB
  */
 public final class SquareControl {
@@ -22,36 +21,15 @@ public final class SquareControl {
 
 	public static long calculate(BoardState state, Side side)
 	{
-		return ChessPieces.of(side).flow()
-				.mapToLong(piece -> calculate(state, piece))
-				.fold(0L, (a, b) -> a | b);
-	}
-
-	public static long calculate(BoardState state, Piece piece)
-	{
-		if (piece.isPawn()) {
-			return calculatePawn(state, piece);
-		}
-		else {
-			DetailedPieceLocations pieceLocs = state.getPieceLocations();
-			long white = pieceLocs.getWhiteLocations(), black = pieceLocs.getBlackLocations();
-			return pieceLocs.iterateLocs(piece)
-					.mapToLong(loc -> piece.getSquaresOfControl(loc, white, black))
-					.fold(0L, (a, b) -> a | b);
+		long control = 0L;
+		for (Piece piece : ChessPieces.of(side)) {
+			control |= calculate(state, piece);
 		}
+		return control;
 	}
 
-	private static long calculatePawn(BoardState state, Piece piece)
+	public static long calculate(BoardState state, Piece piece)
 	{
-		assert piece.isPawn();
-		long pawnLocs = state.getPieceLocations().locationsOf(piece);
-		assert !bitboardsIntersect(pawnLocs, rankBitboard(0)) && !bitboardsIntersect(pawnLocs, rankBitboard(7));
-		long aFileRemover = ~fileBitboard(7), hFileRemover = ~fileBitboard(0);
-		if (piece.isWhite()) {
-			return ((pawnLocs & aFileRemover) << 9) | ((pawnLocs & hFileRemover) << 7);
-		}
-		else {
-			return ((pawnLocs & aFileRemover) >>> 7) | ((pawnLocs & hFileRemover) >>> 9);
-		}
+		return AttackMaps.calculate(state.getPieceLocations(), piece);
 	}
 }
@@ -41,7 +41,7 @@ public final class TerminationState
 			return GameTermination.NOT_TERMINAL;
 		} else {
 			Side active = state.getActiveSide(), passive = active.otherSide();
-			long passiveControl = SquareControl.calculate(state, passive);
+			long passiveControl = state.getAttackMaps().of(passive);
 			long kingLoc = state.getPieceLocations().locationsOf(ChessPieces.of(active).last());
 			boolean inCheck = BitboardUtils.bitboardsIntersect(passiveControl, kingLoc);
 			return inCheck ? GameTermination.getWinFor(passive) : GameTermination.DRAW;
@@ -11,6 +11,7 @@ import java.util.Optional;
 import jenjinn.base.FileUtils;
 import jenjinn.boardstate.BoardState;
 import jenjinn.moves.ChessMove;
+import jenjinn.movesearch.SearchListener;
 import jenjinn.movesearch.TreeSearcher;
 import jflow.seq.Seq;
 
@@ -19,13 +20,23 @@ import jflow.seq.Seq;
  */
 public final class Jenjinn
 {
-	private final TreeSearcher treeSearcher = new TreeSearcher();
+	private final TreeSearcher treeSearcher;
 	private final Seq<String> openingFiles;
 
 	private int openingCount = 0;
 
 	public Jenjinn()
 	{
+		this(1);
+	}
+
+	/**
+	 * @param searchThreads
+	 *            The number of threads used when searching for a move.
+	 */
+	public Jenjinn(int searchThreads)
+	{
+		treeSearcher = new TreeSearcher(searchThreads);
 		List<String> files = FileUtils.cacheResource(Jenjinn.class, "openingFileNames").toList();
 		Collections.shuffle(files); // Different openings each time.
 		openingFiles = Seq.copy(files);
@@ -37,26 +48,50 @@ public final class Jenjinn
 			Optional<ChessMove> openingSearch = findMoveInOpeningdatabase(state);
 			if (openingSearch.isPresent()) {
 				openingCount = 0;
+				// The quiescent searcher below belongs to the search doing the pondering.
+				treeSearcher.stopPondering();
 				// Lets check that the opening move is ok...
 				BoardState cpy = state.copy();
 				openingSearch.get().makeMove(cpy);
-				try {
-					int qsearch = treeSearcher.getQuiescent().search(cpy);
-					if (qsearch > 300) {
-						System.out.println("Potential hash collision? Aborting opening db and switching to calculation.");
-						openingCount = 5;
-					}
-					else {
-						return openingSearch;
-					}
-				} catch (InterruptedException e) {
-					throw new RuntimeException();
+				int qsearch = treeSearcher.getQuiescent().search(cpy);
+				if (qsearch > 300) {
+					System.out.println("Potential hash collision? Aborting opening db and switching to calculation.");
+					openingCount = 5;
+				}
+				else {
+					return openingSearch;
 				}
 			}
 		}
 		return treeSearcher.getBestMoveFrom(state, timeLimit);
 	}
 
+	/**
+	 * Starts thinking about the next move while the opponent thinks about theirs,
+	 * the work is kept if they play the expected reply.
+	 *
+	 * @param state
+	 *            The state after this engine's move, it is not modified.
+	 */
+	public void startPondering(BoardState state)
+	{
+		treeSearcher.startPondering(state);
+	}
+
+	public void stopPondering()
+	{
+		treeSearcher.stopPondering();
+	}
+
+	/**
+	 * Registers a listener for the statistics of the searches made by this
+	 * engine, moves found in the opening database involve no search.
+	 */
+	public void addSearchListener(SearchListener listener)
+	{
+		treeSearcher.addSearchListener(listener);
+	}
+
 	private Optional<ChessMove> findMoveInOpeningdatabase(BoardState state)
 	{
 		for (String openingName : openingFiles) {
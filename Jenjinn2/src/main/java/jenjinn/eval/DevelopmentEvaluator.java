@@ -3,9 +3,12 @@
  */
 package jenjinn.eval;
 
+import java.util.Set;
+
 import jenjinn.base.CastleZone;
 import jenjinn.base.DevelopmentPiece;
 import jenjinn.boardstate.BoardState;
+import jenjinn.boardstate.CastlingStatus;
 
 /**
  * @author ThomasB
@@ -21,23 +24,32 @@ public final class DevelopmentEvaluator implements EvaluationComponent
 
 	@Override
 	public int evaluate(BoardState state)
+	{
+		return state.getDevelopmentEval();
+	}
+
+	/**
+	 * Calculates the score the state keeps up to date as pieces are developed
+	 * and the sides castle.
+	 */
+	public static int evaluateFromScratch(Set<DevelopmentPiece> developedPieces, CastlingStatus castlingStatus)
 	{
 		int eval = 0;
-		for (final DevelopmentPiece devPiece : state.getDevelopedPieces()) {
+		for (final DevelopmentPiece devPiece : developedPieces) {
 			eval += getValueOf(devPiece);
 		}
-		eval += getValueOf(state.getCastlingStatus().getWhiteCastlingStatus());
-		eval += getValueOf(state.getCastlingStatus().getBlackCastlingStatus());
+		eval += getValueOf(castlingStatus.getWhiteCastlingStatus());
+		eval += getValueOf(castlingStatus.getBlackCastlingStatus());
 		return eval;
 	}
 
-	static int getValueOf(DevelopmentPiece dpiece)
+	public static int getValueOf(DevelopmentPiece dpiece)
 	{
 		final int ord = dpiece.ordinal();
 		return (1 - 2*(ord / 6)) * DEVELOPMENT_VALUES[ord % 6];
 	}
 
-	static int getValueOf(CastleZone dpiece)
+	public static int getValueOf(CastleZone dpiece)
 	{
 		if (dpiece == null) {
 			return 0;
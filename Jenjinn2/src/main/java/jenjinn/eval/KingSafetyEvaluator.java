@@ -4,13 +4,14 @@
 package jenjinn.eval;
 
 import static java.lang.Long.bitCount;
+import static jenjinn.bitboards.BitboardUtils.lowestSquare;
 
 import jenjinn.base.Square;
+import jenjinn.boardstate.AttackMaps;
 import jenjinn.boardstate.BoardState;
 import jenjinn.boardstate.DetailedPieceLocations;
 import jenjinn.pieces.ChessPieces;
 import jenjinn.pieces.Piece;
-import jflow.iterators.Flow;
 import jflow.seq.Seq;
 
 /**
@@ -31,29 +32,27 @@ public final class KingSafetyEvaluator implements EvaluationComponent
 	{
 		KingSafetyTable kst = KingSafetyTable.INSTANCE;
 		DetailedPieceLocations pieceLocs = state.getPieceLocations();
-		long white = pieceLocs.getWhiteLocations(), black = pieceLocs.getBlackLocations();
+		AttackMaps attackMaps = state.getAttackMaps();
 
-		Square wKingLoc = pieceLocs.iterateLocs(Piece.WHITE_KING).next();
+		Square wKingLoc = lowestSquare(pieceLocs.locationsOf(Piece.WHITE_KING));
 		KingSafetyArea wSafetyArea = KingSafetyArea.get(wKingLoc);
 
 		int bAttackUnits = 0;
 		for (Piece piece : WKING_ATTACKERS) {
-			Flow<Square> locs = pieceLocs.iterateLocs(piece);
-			while (locs.hasNext()) {
-				long control = piece.getSquaresOfControl(locs.next(), white, black);
+			for (long locs = pieceLocs.locationsOf(piece); locs != 0; locs &= locs - 1) {
+				long control = attackMaps.of(lowestSquare(locs));
 				bAttackUnits += bitCount(control & wSafetyArea.getOuterArea()) * kst.getOuterUnitValue(piece);
 				bAttackUnits += bitCount(control & wSafetyArea.getInnerArea()) * kst.getInnerUnitValue(piece);
 			}
 		}
 
-		Square bKingLoc = pieceLocs.iterateLocs(Piece.BLACK_KING).next();
+		Square bKingLoc = lowestSquare(pieceLocs.locationsOf(Piece.BLACK_KING));
 		KingSafetyArea bSafetyArea = KingSafetyArea.get(bKingLoc);
 
 		int wAttackUnits = 0;
 		for (Piece piece : BKING_ATTACKERS) {
-			Flow<Square> locs = pieceLocs.iterateLocs(piece);
-			while (locs.hasNext()) {
-				long control = piece.getSquaresOfControl(locs.next(), white, black);
+			for (long locs = pieceLocs.locationsOf(piece); locs != 0; locs &= locs - 1) {
+				long control = attackMaps.of(lowestSquare(locs));
 				wAttackUnits += bitCount(control & bSafetyArea.getOuterArea()) * kst.getOuterUnitValue(piece);
 				wAttackUnits += bitCount(control & bSafetyArea.getInnerArea()) * kst.getInnerUnitValue(piece);
 			}
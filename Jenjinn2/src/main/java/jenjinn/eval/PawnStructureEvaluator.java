@@ -5,10 +5,10 @@ package jenjinn.eval;
 
 import static java.lang.Long.bitCount;
 import static jenjinn.bitboards.BitboardUtils.bitboardsIntersect;
+import static jenjinn.bitboards.BitboardUtils.lowestSquare;
 import static jenjinn.bitboards.Bitboards.fileBitboard;
 import static jenjinn.bitboards.Bitboards.rankBitboard;
 
-import jenjinn.bitboards.BitboardIterator;
 import jenjinn.boardstate.BoardState;
 import jenjinn.boardstate.DetailedPieceLocations;
 import jenjinn.eval.PawnTable.Entry;
@@ -76,17 +76,15 @@ public final class PawnStructureEvaluator implements EvaluationComponent
 
 	private long calculatePawnPositionHash(long wpawns, long bpawns)
 	{
-		Piece wp = Piece.WHITE_PAWN, bp = Piece.BLACK_PAWN;
-
-		long whash = BitboardIterator.from(wpawns)
-				.mapToLong(sq -> BoardHasher.INSTANCE.getSquarePieceFeature(sq, wp))
-				.fold(0L, (a, b) -> a ^ b);
-
-		long bhash = BitboardIterator.from(bpawns)
-				.mapToLong(sq -> BoardHasher.INSTANCE.getSquarePieceFeature(sq, bp))
-				.fold(0L, (a, b) -> a ^ b);
-
-		return whash ^ bhash;
+		BoardHasher hasher = BoardHasher.INSTANCE;
+		long hash = 0L;
+		for (long locs = wpawns; locs != 0; locs &= locs - 1) {
+			hash ^= hasher.getSquarePieceFeature(lowestSquare(locs), Piece.WHITE_PAWN);
+		}
+		for (long locs = bpawns; locs != 0; locs &= locs - 1) {
+			hash ^= hasher.getSquarePieceFeature(lowestSquare(locs), Piece.BLACK_PAWN);
+		}
+		return hash;
 	}
 
 	public static int evaluatePawnChains(long wpawns, long bpawns)
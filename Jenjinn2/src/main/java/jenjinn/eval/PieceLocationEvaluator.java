@@ -5,7 +5,6 @@ package jenjinn.eval;
 
 import jenjinn.boardstate.BoardState;
 import jenjinn.boardstate.DetailedPieceLocations;
-import jenjinn.pieces.ChessPieces;
 import jenjinn.pieces.Piece;
 
 /**
@@ -13,9 +12,10 @@ import jenjinn.pieces.Piece;
  * as taking into account the positions of the material. It performs an
  * interpolation between midgame and endgame scores by looking at the total
  * amount of material on the board to calculate a 'game phase' which is then
- * used in the interpolation between the two scores. Not that the positional
- * eval is incrementally updated during the making/unmaking of moves so we
- * don't have to perform the full calculation here.
+ * used in the interpolation between the two scores. Note that the positional
+ * eval and the phase material are incrementally updated during the
+ * making/unmaking of moves so we don't have to perform the full calculation
+ * here.
  *
  * @author ThomasB
  */
@@ -31,19 +31,17 @@ public class PieceLocationEvaluator implements EvaluationComponent
 	public int evaluate(BoardState state)
 	{
 		DetailedPieceLocations pieceLocs = state.getPieceLocations();
-		int gamePhase = calculateGamePhase(pieceLocs);
+		int gamePhase = ((24 - pieceLocs.getPhaseMaterial()) * 256 + 12) / 24;
 		int midgameEval = pieceLocs.getMidgameEval(), endgameEval = pieceLocs.getEndgameEval();
 		return ((midgameEval * (256 - gamePhase)) + endgameEval * gamePhase) / 256;
 	}
 
-	private int calculateGamePhase(DetailedPieceLocations plocs)
+	/**
+	 * @return how much the given piece contributes to the material which makes
+	 *         the game phase, kings and pawns contribute nothing.
+	 */
+	public static int phaseValueOf(Piece piece)
 	{
-		int piecePhase = 24;
-		for (int i = 1; i < 5; i++) {
-			Piece wp = ChessPieces.fromIndex(i), bp = ChessPieces.fromIndex(i + 6);
-			int totalPieces = plocs.pieceCountOf(wp) + plocs.pieceCountOf(bp);
-			piecePhase -= totalPieces * PIECE_PHASE_VALUES[i];
-		}
-		return (piecePhase * 256 + 12) / 24;
+		return PIECE_PHASE_VALUES[piece.ordinal() % 6];
 	}
 }
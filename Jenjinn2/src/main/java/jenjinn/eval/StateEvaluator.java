@@ -4,27 +4,162 @@
 package jenjinn.eval;
 
 import jenjinn.boardstate.BoardState;
-import jflow.seq.Seq;
 
 /**
+ * Sums the evaluation components of a state. The material, piece-square,
+ * development and castling terms are accumulated by the state itself as moves
+ * are made and reversed so {@link #evaluateIncremental(BoardState)} amounts to
+ * a few field reads. The king safety and pawn structure terms have to be
+ * computed from the position and are kept apart in
+ * {@link #evaluateNonIncremental(BoardState)} so callers can choose to skip
+ * them.
+ *
+ * <p>
+ * {@link #evaluate(BoardState, int, int)} does so lazily, adding the computed
+ * terms cheapest first and stopping as soon as the margins of the terms still
+ * to come cannot bring the score inside the window, in which case it returns
+ * the bound those margins give. The margins are heuristic, measured over the
+ * benchmark corpus rather than true maxima, so such a bound can be wrong.
+ *
  * @author ThomasB
  */
 public class StateEvaluator
 {
-	private final Seq<EvaluationComponent> components;
+	/**
+	 * Bounds the magnitude of the pawn structure term in all but about one in a
+	 * hundred positions of the benchmark corpus, the largest seen was 915. The
+	 * term is cheap when its pawn table hits so it is computed first.
+	 */
+	public static final int PAWN_STRUCTURE_MARGIN = 500;
+
+	/**
+	 * Bounds the magnitude of the king safety term in all but about one in a
+	 * hundred positions of the benchmark corpus, though the term reaches the
+	 * largest value of the {@linkplain KingSafetyTable}, 1000.
+	 */
+	public static final int KING_SAFETY_MARGIN = 700;
+
+	private final EvaluationComponent[] incrementalComponents;
+	private final EvaluationComponent[] nonIncrementalComponents;
+	private final int[] nonIncrementalMargins = { PAWN_STRUCTURE_MARGIN, KING_SAFETY_MARGIN };
+
+	private long lazyEvaluationCount = 0, lazyExitCount = 0;
+	private boolean lastEvaluationBound = false;
 
 	public StateEvaluator(int pawnTableSize)
 	{
-		components = Seq.of(
+		incrementalComponents = new EvaluationComponent[] {
 				new DevelopmentEvaluator(),
-				new KingSafetyEvaluator(),
-				new PieceLocationEvaluator(),
-				new PawnStructureEvaluator(pawnTableSize));
+				new PieceLocationEvaluator() };
+		nonIncrementalComponents = new EvaluationComponent[] {
+				new PawnStructureEvaluator(pawnTableSize),
+				new KingSafetyEvaluator() };
 	}
 
+	/**
+	 * @return the full evaluation of the state from the perspective of the
+	 *         active side.
+	 */
 	public int evaluate(BoardState state)
 	{
-		int signedScore = components.flow().mapToInt(c -> c.evaluate(state)).fold(0, (a, b) -> a + b);
-		return (state.getActiveSide().isWhite() ? 1 : -1) * signedScore;
+		return sideMultiplier(state) * (sum(incrementalComponents, state) + sum(nonIncrementalComponents, state));
+	}
+
+	/**
+	 * Evaluates the state from the perspective of the active side, computing the
+	 * expensive terms only while the score could still lie inside the given
+	 * window.
+	 *
+	 * @return the full evaluation if it could lie inside the window. Otherwise an
+	 *         upper bound at or below alpha or a lower bound at or above beta,
+	 *         the sum of the terms computed so far plus or minus the margins of
+	 *         those skipped. The bound only holds when each skipped term lies
+	 *         within its margin, see {@link #isLastEvaluationBound()}.
+	 */
+	public int evaluate(BoardState state, int alpha, int beta)
+	{
+		lazyEvaluationCount++;
+		lastEvaluationBound = false;
+		int sign = sideMultiplier(state);
+		int score = sign * sum(incrementalComponents, state);
+		int remainingMargin = PAWN_STRUCTURE_MARGIN + KING_SAFETY_MARGIN;
+		for (int i = 0; i < nonIncrementalComponents.length; i++) {
+			if (score - remainingMargin >= beta) {
+				lazyExitCount++;
+				lastEvaluationBound = true;
+				return score - remainingMargin;
+			} else if (score + remainingMargin <= alpha) {
+				lazyExitCount++;
+				lastEvaluationBound = true;
+				return score + remainingMargin;
+			}
+			score += sign * nonIncrementalComponents[i].evaluate(state);
+			remainingMargin -= nonIncrementalMargins[i];
+		}
+		return score;
+	}
+
+	/**
+	 * @return whether the last call to {@link #evaluate(BoardState, int, int)}
+	 *         returned a heuristic bound rather than the full evaluation.
+	 */
+	public boolean isLastEvaluationBound()
+	{
+		return lastEvaluationBound;
+	}
+
+	/**
+	 * @return the sum of the terms maintained by the state during make/unmake,
+	 *         from the perspective of the active side.
+	 */
+	public int evaluateIncremental(BoardState state)
+	{
+		return sideMultiplier(state) * sum(incrementalComponents, state);
+	}
+
+	/**
+	 * @return the sum of the terms which must be computed from the position, from
+	 *         the perspective of the active side.
+	 */
+	public int evaluateNonIncremental(BoardState state)
+	{
+		return sideMultiplier(state) * sum(nonIncrementalComponents, state);
+	}
+
+	/**
+	 * @return the number of calls to {@link #evaluate(BoardState, int, int)}.
+	 */
+	public long getLazyEvaluationCount()
+	{
+		return lazyEvaluationCount;
+	}
+
+	/**
+	 * @return the number of calls to {@link #evaluate(BoardState, int, int)}
+	 *         which returned before computing every term.
+	 */
+	public long getLazyExitCount()
+	{
+		return lazyExitCount;
+	}
+
+	public void resetStatistics()
+	{
+		lazyEvaluationCount = 0;
+		lazyExitCount = 0;
+	}
+
+	private static int sum(EvaluationComponent[] components, BoardState state)
+	{
+		int signedScore = 0;
+		for (EvaluationComponent component : components) {
+			signedScore += component.evaluate(state);
+		}
+		return signedScore;
+	}
+
+	private static int sideMultiplier(BoardState state)
+	{
+		return state.getActiveSide().isWhite() ? 1 : -1;
 	}
 }
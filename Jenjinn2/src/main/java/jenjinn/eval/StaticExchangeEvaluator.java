@@ -5,16 +5,15 @@ package jenjinn.eval;
 
 import static java.lang.Math.max;
 import static jenjinn.bitboards.BitboardUtils.bitboardsIntersect;
+import static jenjinn.bitboards.BitboardUtils.lowestSquare;
 import static jenjinn.bitboards.Bitboards.emptyBoardAttackset;
 
 import jenjinn.base.Side;
 import jenjinn.base.Square;
-import jenjinn.bitboards.BitboardIterator;
 import jenjinn.boardstate.BoardState;
 import jenjinn.boardstate.DetailedPieceLocations;
 import jenjinn.pieces.ChessPieces;
 import jenjinn.pieces.Piece;
-import jflow.iterators.Flow;
 
 /**
  * @author ThomasB
@@ -66,10 +65,9 @@ public class StaticExchangeEvaluator
 	private void updateXrays(DetailedPieceLocations pieceLocs)
 	{
 		if (xrays != 0) {
-			Flow<Square> xrayLocs = BitboardIterator.from(xrays);
 			long white = pieceLocs.getWhiteLocations(), black = pieceLocs.getBlackLocations();
-			while (xrayLocs.hasNext()) {
-				Square loc = xrayLocs.next();
+			for (long xrayLocs = xrays; xrayLocs != 0; xrayLocs &= xrayLocs - 1) {
+				Square loc = lowestSquare(xrayLocs);
 				Piece p = pieceLocs.getPieceAt(loc);
 				if (bitboardsIntersect(p.getSquaresOfControl(loc, white, black), target)) {
 					long locBitboard = loc.bitboard;
@@ -88,9 +86,8 @@ public class StaticExchangeEvaluator
 		long black = locationProvider.getBlackLocations();
 
 		for (Piece p : ChessPieces.ALL) {
-			Flow<Square> locations = locationProvider.iterateLocs(p);
-			while (locations.hasNext()) {
-				Square loc = locations.next();
+			for (long locs = locationProvider.locationsOf(p); locs != 0; locs &= locs - 1) {
+				Square loc = lowestSquare(locs);
 				long control = p.getSquaresOfControl(loc, white, black);
 				if (bitboardsIntersect(control, target)) {
 					attadef |= loc.bitboard;
@@ -3,8 +3,9 @@
  */
 package jenjinn.eval.piecesquaretables;
 
+import static jenjinn.bitboards.BitboardUtils.lowestSquare;
+
 import jenjinn.base.Square;
-import jenjinn.boardstate.LocationTracker;
 import jenjinn.pieces.ChessPieces;
 import jenjinn.pieces.Piece;
 import jflow.iterators.factories.IterRange;
@@ -31,17 +32,17 @@ public final class PieceSquareTables
 		return tables.get(piece.ordinal()).getValueAt(location);
 	}
 
-	public int evaluateLocations(Seq<LocationTracker> pieceLocations)
+	public int evaluateLocations(long[] pieceLocations)
 	{
-		if (pieceLocations.size() != 12) {
+		if (pieceLocations.length != 12) {
 			throw new IllegalArgumentException();
 		}
 		int eval = 0;
-		for (int i = 0; i < pieceLocations.size(); i++) {
+		for (int i = 0; i < pieceLocations.length; i++) {
 			PieceSquareTable pieceTable = tables.get(i);
-			eval += pieceLocations.get(i).iterator()
-					.mapToInt(loc -> pieceTable.getValueAt(loc))
-					.fold(0, (a, b) -> a + b);
+			for (long locs = pieceLocations[i]; locs != 0; locs &= locs - 1) {
+				eval += pieceTable.getValueAt(lowestSquare(locs));
+			}
 		}
 		return eval;
 	}
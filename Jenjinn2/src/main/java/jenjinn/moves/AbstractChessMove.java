@@ -1,15 +1,12 @@
 package jenjinn.moves;
 
-import static java.util.EnumSet.copyOf;
-import static java.util.EnumSet.noneOf;
-
-import java.util.EnumSet;
 import java.util.Set;
 
 import jenjinn.base.CastleZone;
 import jenjinn.base.DevelopmentPiece;
 import jenjinn.base.Square;
 import jenjinn.boardstate.BoardState;
+import jenjinn.boardstate.CastlingStatus;
 import jenjinn.boardstate.DetailedPieceLocations;
 import jenjinn.boardstate.MoveReversalData;
 
@@ -41,15 +38,11 @@ public abstract class AbstractChessMove implements ChessMove
 
 	void updateCastlingStatus(BoardState state, MoveReversalData unmakeDataStore)
 	{
-		if (state.getCastlingStatus().getCastlingRights().size() > 0) {
-			Set<CastleZone> toBeRemoved = getAllRightsToBeRemoved();
-			Set<CastleZone> rightsRemoved = toBeRemoved.isEmpty() ? noneOf(CastleZone.class) : copyOf(toBeRemoved);
-			rightsRemoved.retainAll(state.getCastlingStatus().getCastlingRights());
-			state.getCastlingStatus().getCastlingRights().removeAll(rightsRemoved);
-			unmakeDataStore.setDiscardedCastlingRights(rightsRemoved);
-		} else if (unmakeDataStore.getDiscardedCastlingRights().size() > 0) {
-			unmakeDataStore.setDiscardedCastlingRights(EnumSet.noneOf(CastleZone.class));
+		int rightsRemoved = getAllRightsToBeRemoved() & state.getCastlingStatus().getCastlingRightsMask();
+		if (rightsRemoved != CastlingStatus.NO_RIGHTS) {
+			state.removeCastlingRights(rightsRemoved);
 		}
+		unmakeDataStore.setDiscardedCastlingRights(rightsRemoved);
 	}
 
 	/**
@@ -64,17 +57,17 @@ public abstract class AbstractChessMove implements ChessMove
 		if (developedPieces.size() < 12) {
 			DevelopmentPiece potentialDevelopment = getPieceDeveloped();
 			if (potentialDevelopment != null && !developedPieces.contains(potentialDevelopment)) {
-				developedPieces.add(potentialDevelopment);
+				state.addDevelopedPiece(potentialDevelopment);
 				unmakeDataStore.setPieceDeveloped(potentialDevelopment);
 			}
 		}
 	}
 
 	/**
-	 * @return a set of {@linkplain CastleZone} which this move would remove if a
-	 *         state had all castling rights enabled.
+	 * @return a mask of the {@linkplain CastleZone} rights which this move would
+	 *         remove if a state had all castling rights enabled.
 	 */
-	abstract Set<CastleZone> getAllRightsToBeRemoved();
+	abstract int getAllRightsToBeRemoved();
 
 	/**
 	 * @return the piece which would be developed by this move assuming it has not
@@ -96,10 +89,16 @@ public abstract class AbstractChessMove implements ChessMove
 	{
 		assert !unmakeDataStore.isConsumed();
 		state.switchActiveSide();
-		state.getDevelopedPieces().remove(unmakeDataStore.getPieceDeveloped());
+		DevelopmentPiece pieceDeveloped = unmakeDataStore.getPieceDeveloped();
+		if (pieceDeveloped != null) {
+			state.removeDevelopedPiece(pieceDeveloped);
+		}
 		state.getHalfMoveClock().setValue(unmakeDataStore.getDiscardedHalfMoveClockValue());
 		state.setEnPassantSquare(unmakeDataStore.getDiscardedEnpassantSquare());
-		state.getCastlingStatus().getCastlingRights().addAll(unmakeDataStore.getDiscardedCastlingRights());
+		int discardedRights = unmakeDataStore.getDiscardedCastlingRights();
+		if (discardedRights != CastlingStatus.NO_RIGHTS) {
+			state.addCastlingRights(discardedRights);
+		}
 		resetPieceLocations(state, unmakeDataStore);
 		state.getHashCache().decrementHalfMoveCount(unmakeDataStore.getDiscardedHash());
 		unmakeDataStore.setConsumed(true);
@@ -107,6 +106,18 @@ public abstract class AbstractChessMove implements ChessMove
 
 	abstract void resetPieceLocations(BoardState state, MoveReversalData unmakeDataStore);
 
+	/**
+	 * @return the four bit flag identifying the type of this move in its compact
+	 *         encoding.
+	 */
+	abstract int getEncodingFlag();
+
+	@Override
+	public int toCompactEncoding()
+	{
+		return MoveCache.encode(getEncodingFlag(), source.ordinal(), target.ordinal());
+	}
+
 	@Override
 	public String toString()
 	{
@@ -6,8 +6,6 @@ package jenjinn.moves;
 import static jenjinn.moves.MoveConstants.BLACK_CASTLE_REMOVALS;
 import static jenjinn.moves.MoveConstants.WHITE_CASTLE_REMOVALS;
 
-import java.util.Set;
-
 import jenjinn.base.CastleZone;
 import jenjinn.base.DevelopmentPiece;
 import jenjinn.base.Side;
@@ -22,7 +20,7 @@ import jenjinn.pieces.Piece;
 public final class CastleMove extends AbstractChessMove
 {
 	private final CastleZone wrappedZone;
-	private final Set<CastleZone> rightsRemovedByThisMove;
+	private final int rightsRemovedByThisMove;
 
 	public CastleMove(CastleZone wrappedZone)
 	{
@@ -66,14 +64,14 @@ public final class CastleMove extends AbstractChessMove
 	void updateCastlingStatus(BoardState state, MoveReversalData unmakeDataStore)
 	{
 		super.updateCastlingStatus(state, unmakeDataStore);
-		state.getCastlingStatus().setCastlingStatus(wrappedZone);
+		state.setCastlingStatus(wrappedZone);
 	}
 
 	@Override
 	public void reverseMove(BoardState state, MoveReversalData unmakeDataStore)
 	{
 		super.reverseMove(state, unmakeDataStore);
-		state.getCastlingStatus().removeCastlingStatus(wrappedZone);
+		state.removeCastlingStatus(wrappedZone);
 	}
 
 	@Override
@@ -90,7 +88,7 @@ public final class CastleMove extends AbstractChessMove
 	}
 
 	@Override
-	Set<CastleZone> getAllRightsToBeRemoved()
+	int getAllRightsToBeRemoved()
 	{
 		return rightsRemovedByThisMove;
 	}
@@ -115,6 +113,12 @@ public final class CastleMove extends AbstractChessMove
 				.toString();
 	}
 
+	@Override
+	int getEncodingFlag()
+	{
+		return MoveConstants.CASTLE_FLAG;
+	}
+
 	@Override
 	public String toCompactString()
 	{
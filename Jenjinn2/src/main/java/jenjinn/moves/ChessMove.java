@@ -22,6 +22,14 @@ public interface ChessMove
 
 	String toCompactString();
 
+	/**
+	 * @return an encoding of this move which fits in sixteen bits, the lowest
+	 *         twelve bits hold the source and target squares and the highest four
+	 *         identify the type of move. It can be reversed by
+	 *         {@link #decode(int)}.
+	 */
+	int toCompactEncoding();
+
 	/**
 	 * Mutate the state of the parameter {@linkplain BoardState} according to this
 	 * move. Store required data for reversing this move in the parameter
@@ -35,14 +43,17 @@ public interface ChessMove
 	void makeMove(BoardState state, MoveReversalData unmakeDataStore);
 
 	/**
-	 * Mutate the state of the parameter board by performing this move without
-	 * saving the reversal data. That is this method is irreversible.
-	 * 
+	 * Mutate the state of the parameter board by performing this move, the
+	 * reversal data is pushed onto the undo stack of the state. The move can then
+	 * be reversed by {@link #reverseMove(BoardState)} once any moves made on the
+	 * stack after it have been reversed. No allocation takes place unless the
+	 * stack is deeper than it has been before.
+	 *
 	 * @param state
 	 */
 	default void makeMove(BoardState state)
 	{
-		makeMove(state, new MoveReversalData());
+		makeMove(state, state.pushReversalData());
 	}
 
 	/**
@@ -54,6 +65,17 @@ public interface ChessMove
 	 */
 	void reverseMove(BoardState state, MoveReversalData unmakeDataStore);
 
+	/**
+	 * Reverses this move, which must be the last move made on the state by
+	 * {@link #makeMove(BoardState)} and not yet reversed.
+	 *
+	 * @param state
+	 */
+	default void reverseMove(BoardState state)
+	{
+		reverseMove(state, state.popReversalData());
+	}
+
 	/**
 	 * @param repr
 	 *            A string encoding a chess move, it must be the same as the output
@@ -101,4 +123,14 @@ public interface ChessMove
 			throw new IllegalArgumentException(repr);
 		}
 	}
+
+	/**
+	 * @param encoding
+	 *            The output of {@link #toCompactEncoding()} for some move.
+	 * @return the decoded move.
+	 */
+	static ChessMove decode(int encoding)
+	{
+		return MoveCache.getMove(encoding);
+	}
 }
@@ -3,14 +3,12 @@
  */
 package jenjinn.moves;
 
-import java.util.Set;
-
-import jenjinn.base.CastleZone;
 import jenjinn.base.DevelopmentPiece;
 import jenjinn.base.Dir;
 import jenjinn.base.Side;
 import jenjinn.base.Square;
 import jenjinn.boardstate.BoardState;
+import jenjinn.boardstate.CastlingStatus;
 import jenjinn.boardstate.MoveReversalData;
 import jenjinn.pieces.ChessPieces;
 import jenjinn.pieces.Piece;
@@ -29,6 +27,14 @@ public final class EnpassantMove extends AbstractChessMove
 		enPassantSquare = target.getNextSquare(start.ordinal() - target.ordinal() > 0? Dir.N : Dir.S).get();
 	}
 
+	/**
+	 * @return the square of the pawn captured by this move.
+	 */
+	public Square getCapturedPawnSquare()
+	{
+		return enPassantSquare;
+	}
+
 	@Override
 	void updatePieceLocations(BoardState state, MoveReversalData unmakeDataStore)
 	{
@@ -66,9 +72,9 @@ public final class EnpassantMove extends AbstractChessMove
 	}
 
 	@Override
-	Set<CastleZone> getAllRightsToBeRemoved()
+	int getAllRightsToBeRemoved()
 	{
-		return MoveConstants.EMPTY_RIGHTS_SET;
+		return CastlingStatus.NO_RIGHTS;
 	}
 
 	@Override
@@ -77,6 +83,12 @@ public final class EnpassantMove extends AbstractChessMove
 		return null;
 	}
 
+	@Override
+	int getEncodingFlag()
+	{
+		return MoveConstants.ENPASSANT_FLAG;
+	}
+
 	@Override
 	public String toCompactString()
 	{
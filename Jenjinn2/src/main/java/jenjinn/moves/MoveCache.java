@@ -6,7 +6,9 @@ package jenjinn.moves;
 import static java.util.Arrays.asList;
 
 import jenjinn.base.CastleZone;
+import jenjinn.base.Side;
 import jenjinn.base.Square;
+import jenjinn.bitboards.Bitboards;
 import jenjinn.bitboards.BitboardIterator;
 import jenjinn.pieces.Piece;
 import jflow.seq.Seq;
@@ -20,6 +22,7 @@ public final class MoveCache {
 
 	private static final Seq<CastleMove> CASTLE_MOVE_CACHE = CastleZone.ALL.map(CastleMove::new);
 	private static final Seq<StandardMove[]> STANDARD_MOVE_CACHE = createStandardMoveCache();
+	private static final ChessMove[] ENCODED_MOVE_CACHE = createEncodedMoveCache();
 
 	static Seq<StandardMove[]> createStandardMoveCache()
 	{
@@ -35,6 +38,61 @@ public final class MoveCache {
 		return moveCache;
 	}
 
+	/**
+	 * Creates a table indexed by compact move encoding containing every move which
+	 * can occur in a legal game.
+	 */
+	static ChessMove[] createEncodedMoveCache()
+	{
+		ChessMove[] moveCache = new ChessMove[1 << 16];
+		for (StandardMove[] movesFromSquare : STANDARD_MOVE_CACHE) {
+			for (StandardMove move : movesFromSquare) {
+				if (move != null) {
+					moveCache[move.toCompactEncoding()] = move;
+				}
+			}
+		}
+		for (CastleMove move : CASTLE_MOVE_CACHE) {
+			moveCache[move.toCompactEncoding()] = move;
+		}
+		for (Side side : Side.values()) {
+			Piece pawn = side.isWhite() ? Piece.WHITE_PAWN : Piece.BLACK_PAWN;
+			int forward = side.isWhite() ? 8 : -8;
+			for (Square source : Square.ALL) {
+				long attacks = Bitboards.emptyBoardAttackset(pawn, source);
+				BitboardIterator.from(attacks).map(target -> new EnpassantMove(source, target))
+						.forEach(move -> moveCache[move.toCompactEncoding()] = move);
+				if (source.rank == side.penultimatePawnRank) {
+					long targets = attacks | Square.ALL.get(source.ordinal() + forward).bitboard;
+					BitboardIterator.from(targets).flatMap(target -> PromotionMove.generateAllPossibilities(source, target))
+							.forEach(move -> moveCache[move.toCompactEncoding()] = move);
+				}
+			}
+		}
+		return moveCache;
+	}
+
+	/**
+	 * @return the move whose compact encoding is given.
+	 */
+	public static ChessMove getMove(int encoding)
+	{
+		ChessMove move = ENCODED_MOVE_CACHE[encoding];
+		if (move == null) {
+			throw new IllegalArgumentException(Integer.toString(encoding));
+		}
+		return move;
+	}
+
+	/**
+	 * @return the compact encoding of a move, see
+	 *         {@link ChessMove#toCompactEncoding()}.
+	 */
+	public static int encode(int flag, int sourceIndex, int targetIndex)
+	{
+		return (flag << 12) | (targetIndex << 6) | sourceIndex;
+	}
+
 	public static StandardMove getMove(Square source, Square target)
 	{
 		assert STANDARD_MOVE_CACHE.get(source.ordinal())[target.ordinal()] != null : "Requested impossible move or my logic is wrong.";
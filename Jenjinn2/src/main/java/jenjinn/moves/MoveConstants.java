@@ -3,19 +3,11 @@
  */
 package jenjinn.moves;
 
-import static java.util.Collections.unmodifiableSet;
 import static jenjinn.base.CastleZone.BLACK_KINGSIDE;
 import static jenjinn.base.CastleZone.BLACK_QUEENSIDE;
 import static jenjinn.base.CastleZone.WHITE_KINGSIDE;
 import static jenjinn.base.CastleZone.WHITE_QUEENSIDE;
 
-import java.util.Collections;
-import java.util.EnumSet;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
-
-import jenjinn.base.CastleZone;
 import jenjinn.base.Square;
 
 /**
@@ -26,23 +18,28 @@ public final class MoveConstants {
 
 	private MoveConstants() {}
 
-	static final Set<CastleZone> EMPTY_RIGHTS_SET = unmodifiableSet(EnumSet.noneOf(CastleZone.class));
-
-	static final Map<Square, Set<CastleZone>> STANDARDMOVE_RIGHTS_SETS;
+	/**
+	 * The mask of castling rights removed by a standard move from or to each
+	 * square, indexed by square ordinal.
+	 */
+	static final int[] STANDARDMOVE_RIGHTS_REMOVED = new int[64];
 	static
 	{
-		final Map<Square, Set<CastleZone>> removalMap = new HashMap<>();
-		removalMap.put(Square.A1, unmodifiableSet(EnumSet.of(WHITE_QUEENSIDE)));
-		removalMap.put(Square.E1, unmodifiableSet(EnumSet.of(WHITE_QUEENSIDE, WHITE_KINGSIDE)));
-		removalMap.put(Square.H1, unmodifiableSet(EnumSet.of(WHITE_KINGSIDE)));
+		STANDARDMOVE_RIGHTS_REMOVED[Square.A1.ordinal()] = WHITE_QUEENSIDE.mask;
+		STANDARDMOVE_RIGHTS_REMOVED[Square.E1.ordinal()] = WHITE_QUEENSIDE.mask | WHITE_KINGSIDE.mask;
+		STANDARDMOVE_RIGHTS_REMOVED[Square.H1.ordinal()] = WHITE_KINGSIDE.mask;
 
-		removalMap.put(Square.A8, unmodifiableSet(EnumSet.of(BLACK_QUEENSIDE)));
-		removalMap.put(Square.E8, unmodifiableSet(EnumSet.of(BLACK_QUEENSIDE, BLACK_KINGSIDE)));
-		removalMap.put(Square.H8, unmodifiableSet(EnumSet.of(BLACK_KINGSIDE)));
-
-		STANDARDMOVE_RIGHTS_SETS = Collections.unmodifiableMap(removalMap);
+		STANDARDMOVE_RIGHTS_REMOVED[Square.A8.ordinal()] = BLACK_QUEENSIDE.mask;
+		STANDARDMOVE_RIGHTS_REMOVED[Square.E8.ordinal()] = BLACK_QUEENSIDE.mask | BLACK_KINGSIDE.mask;
+		STANDARDMOVE_RIGHTS_REMOVED[Square.H8.ordinal()] = BLACK_KINGSIDE.mask;
 	}
 
-	static final Set<CastleZone> WHITE_CASTLE_REMOVALS = unmodifiableSet(EnumSet.of(WHITE_QUEENSIDE, WHITE_KINGSIDE));
-	static final Set<CastleZone> BLACK_CASTLE_REMOVALS = unmodifiableSet(EnumSet.of(BLACK_QUEENSIDE, BLACK_KINGSIDE));
+	/*
+	 * Move type flags occupying the top four bits of the compact move encoding,
+	 * promotions use one flag per result.
+	 */
+	public static final int STANDARD_FLAG = 0, ENPASSANT_FLAG = 1, CASTLE_FLAG = 2, PROMOTION_FLAG = 3;
+
+	static final int WHITE_CASTLE_REMOVALS = WHITE_QUEENSIDE.mask | WHITE_KINGSIDE.mask;
+	static final int BLACK_CASTLE_REMOVALS = BLACK_QUEENSIDE.mask | BLACK_KINGSIDE.mask;
 }
@@ -3,9 +3,6 @@
  */
 package jenjinn.moves;
 
-import java.util.Set;
-
-import jenjinn.base.CastleZone;
 import jenjinn.base.DevelopmentPiece;
 import jenjinn.base.Side;
 import jenjinn.base.Square;
@@ -43,9 +40,7 @@ public final class PromotionMove extends AbstractChessMove
 	void updatePieceLocations(BoardState state, MoveReversalData unmakeDataStore)
 	{
 		Side activeSide = state.getActiveSide();
-		state.getPieceLocations().removePieceAt(getSource(), activeSide.isWhite() ? Piece.WHITE_PAWN : Piece.BLACK_PAWN);
-		state.getPieceLocations().addPieceAt(getTarget(), promotionResult.toPiece(activeSide));
-
+		// Any captured piece must be removed before the target square can be occupied.
 		Piece removedPiece = state.getPieceLocations().getPieceAt(getTarget(), activeSide.otherSide());
 		if (removedPiece != null) {
 			state.getPieceLocations().removePieceAt(getTarget(), removedPiece);
@@ -55,6 +50,9 @@ public final class PromotionMove extends AbstractChessMove
 			unmakeDataStore.setPieceTaken(null);
 		}
 
+		state.getPieceLocations().removePieceAt(getSource(), activeSide.isWhite() ? Piece.WHITE_PAWN : Piece.BLACK_PAWN);
+		state.getPieceLocations().addPieceAt(getTarget(), promotionResult.toPiece(activeSide));
+
 		unmakeDataStore.setDiscardedEnpassantSquare(state.getEnPassantSquare());
 		state.setEnPassantSquare(null);
 		unmakeDataStore.setDiscardedHalfMoveClock(state.getHalfMoveClock().getValue());
@@ -75,9 +73,10 @@ public final class PromotionMove extends AbstractChessMove
 	}
 
 	@Override
-	Set<CastleZone> getAllRightsToBeRemoved()
+	int getAllRightsToBeRemoved()
 	{
-		return MoveConstants.EMPTY_RIGHTS_SET;
+		// A promotion never moves a king or rook but may capture a rook on its corner.
+		return MoveConstants.STANDARDMOVE_RIGHTS_REMOVED[getTarget().ordinal()];
 	}
 
 	@Override
@@ -100,6 +99,12 @@ public final class PromotionMove extends AbstractChessMove
 				.toString();
 	}
 
+	@Override
+	int getEncodingFlag()
+	{
+		return MoveConstants.PROMOTION_FLAG + promotionResult.ordinal();
+	}
+
 	@Override
 	public String toCompactString()
 	{
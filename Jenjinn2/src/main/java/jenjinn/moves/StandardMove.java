@@ -4,15 +4,9 @@
 package jenjinn.moves;
 
 import static java.lang.Math.abs;
-import static java.util.Collections.unmodifiableSet;
 
-import java.util.EnumSet;
-import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
-import java.util.function.Predicate;
 
-import jenjinn.base.CastleZone;
 import jenjinn.base.DevelopmentPiece;
 import jenjinn.base.Dir;
 import jenjinn.base.Side;
@@ -28,7 +22,7 @@ import jflow.seq.Seq;
  */
 public final class StandardMove extends AbstractChessMove
 {
-	private final Set<CastleZone> rightsRemovedByThisMove;
+	private final int rightsRemovedByThisMove;
 	private final long inducedCord;
 
 	public StandardMove(Square start, Square target)
@@ -55,22 +49,10 @@ public final class StandardMove extends AbstractChessMove
 		}
 	}
 
-	private Set<CastleZone> initRightsRemoved()
+	private int initRightsRemoved()
 	{
-		Map<Square, Set<CastleZone>> rightsSets = MoveConstants.STANDARDMOVE_RIGHTS_SETS;
-
-		Predicate<Object> p = rightsSets::containsKey;
-		if (p.test(getSource()) || p.test(getTarget())) {
-			Set<CastleZone> x = p.test(getSource())? rightsSets.get(getSource()) : EnumSet.noneOf(CastleZone.class);
-			Set<CastleZone> y = p.test(getTarget())? rightsSets.get(getTarget()) : EnumSet.noneOf(CastleZone.class);
-			Set<CastleZone> mutableResult = EnumSet.noneOf(CastleZone.class);
-			mutableResult.addAll(x);
-			mutableResult.addAll(y);
-			return unmodifiableSet(mutableResult);
-		}
-		else {
-			return MoveConstants.EMPTY_RIGHTS_SET;
-		}
+		int[] rightsRemoved = MoveConstants.STANDARDMOVE_RIGHTS_REMOVED;
+		return rightsRemoved[getSource().ordinal()] | rightsRemoved[getTarget().ordinal()];
 	}
 
 	public long getInducedCord()
@@ -89,11 +71,12 @@ public final class StandardMove extends AbstractChessMove
 
 		// Update locations
 		unmakeDataStore.setPieceTaken(removedPiece);
-		state.getPieceLocations().removePieceAt(source, movingPiece);
-		state.getPieceLocations().addPieceAt(target, movingPiece);
 		if (pieceWasRemoved) {
+			// Must be removed before the target square can be occupied.
 			state.getPieceLocations().removePieceAt(target, removedPiece);
 		}
+		state.getPieceLocations().removePieceAt(source, movingPiece);
+		state.getPieceLocations().addPieceAt(target, movingPiece);
 
 		//---------------------------------------------
 		// Update enpassant stuff
@@ -133,7 +116,7 @@ public final class StandardMove extends AbstractChessMove
 	}
 
 	@Override
-	Set<CastleZone> getAllRightsToBeRemoved()
+	int getAllRightsToBeRemoved()
 	{
 		return rightsRemovedByThisMove;
 	}
@@ -144,6 +127,12 @@ public final class StandardMove extends AbstractChessMove
 		return DevelopmentPiece.fromStartSquare(getSource());
 	}
 
+	@Override
+	int getEncodingFlag()
+	{
+		return MoveConstants.STANDARD_FLAG;
+	}
+
 	@Override
 	public String toCompactString()
 	{
@@ -0,0 +1,64 @@
+/**
+ *
+ */
+package jenjinn.movesearch;
+
+import jenjinn.base.Square;
+import jenjinn.boardstate.DetailedPieceLocations;
+import jenjinn.pieces.Piece;
+
+/**
+ * The scores by which the searchers order moves, higher scoring moves being
+ * searched first.
+ *
+ * @author ThomasB
+ */
+final class MoveOrdering
+{
+	private MoveOrdering()
+	{
+	}
+
+	/**
+	 * @return the most valuable victim / least valuable attacker score of a
+	 *         capture, so captures of a queen come first and amongst those the
+	 *         ones made by a pawn.
+	 */
+	static int mvvLva(DetailedPieceLocations pieceLocations, Square source, Square target)
+	{
+		Piece victim = pieceLocations.getPieceAt(target);
+		// Enpassant is the only capture whose target is empty.
+		int victimIndex = victim == null ? 0 : victim.ordinal() % 6;
+		int attackerIndex = pieceLocations.getPieceAt(source).ordinal() % 6;
+		return 8 * victimIndex + 7 - attackerIndex;
+	}
+
+	/**
+	 * @return the index of the from-to pair of a compact move encoding in a
+	 *         butterfly table.
+	 */
+	static int butterflyIndex(int encoding)
+	{
+		return encoding & 0xFFF;
+	}
+
+	/**
+	 * Sorts the moves in the given range of the buffer by descending score, the
+	 * scores being moved alongside them. An insertion sort since there are rarely
+	 * more than a few dozen moves.
+	 */
+	static void sortByScore(int[] moves, int[] scores, int start, int end)
+	{
+		for (int i = start + 1; i < end; i++) {
+			int move = moves[i], score = scores[i];
+			int j = i - 1;
+			while (j >= start && scores[j] < score) {
+				moves[j + 1] = moves[j];
+				scores[j + 1] = scores[j];
+				j--;
+			}
+			moves[j + 1] = move;
+			scores[j + 1] = score;
+		}
+	}
+}
@@ -3,31 +3,28 @@
  */
 package jenjinn.movesearch;
 
-import static jenjinn.bitboards.BitboardUtils.bitboardsIntersect;
-
-import java.util.Optional;
-
-import jenjinn.base.GameTermination;
 import jenjinn.base.Side;
 import jenjinn.base.Square;
 import jenjinn.boardstate.BoardState;
 import jenjinn.boardstate.DetailedPieceLocations;
 import jenjinn.boardstate.MoveReversalData;
-import jenjinn.boardstate.calculators.LegalMoves;
-import jenjinn.boardstate.calculators.SquareControl;
+import jenjinn.boardstate.calculators.MoveGenerator;
 import jenjinn.boardstate.calculators.TerminationState;
 import jenjinn.eval.PieceValues;
 import jenjinn.eval.StateEvaluator;
 import jenjinn.eval.StaticExchangeEvaluator;
 import jenjinn.moves.ChessMove;
 import jenjinn.moves.EnpassantMove;
-import jenjinn.pieces.ChessPieces;
 import jenjinn.pieces.Piece;
-import jflow.iterators.Flow;
 import jflow.iterators.factories.IterRange;
 import jflow.seq.Seq;
 
 /**
+ * Searches captures (and every evasion when in check) until the position is
+ * quiet. The legal captures of a node are generated once into a per-ply buffer
+ * by a {@link MoveGenerator}, the quiet moves are only generated when in check
+ * or to tell stalemate apart from a quiet position with no captures.
+ *
  * @author ThomasB
  */
 public final class QuiescentSearcher
@@ -35,15 +32,31 @@ public final class QuiescentSearcher
 	public static final int DEPTH_CAP = 20;
 
 	private final Seq<MoveReversalData> moveReversers;
+	private final Seq<MoveGenerator> moveGenerators;
+	private final int[][] moveBuffers;
+	private final int[][] moveScores;
 
 	private final int deltaPruneSafetyMargin  = 200;
 	private final int bigDelta                = calculateBigDelta();
 	private final StateEvaluator evaluator    = new StateEvaluator(10);
 	private final StaticExchangeEvaluator see = new StaticExchangeEvaluator();
 
+	private long nodeCount = 0;
+	private long tableProbes = 0, tableHits = 0, tableCutoffs = 0;
+	private int maxPlyReached = 0;
+	private SearchClock clock = SearchClock.unlimited();
+	private TranspositionTable table = null;
+	private boolean lazyEvaluation = true;
+
+	/**
+	 * Creates a searcher which does not use a transposition table.
+	 */
 	public QuiescentSearcher()
 	{
 		moveReversers = IterRange.to(DEPTH_CAP).mapToObject(i -> new MoveReversalData()).toSeq();
+		moveGenerators = IterRange.to(DEPTH_CAP + 1).mapToObject(i -> new MoveGenerator()).toSeq();
+		moveBuffers = new int[DEPTH_CAP + 1][MoveGenerator.MAX_MOVES];
+		moveScores = new int[DEPTH_CAP + 1][MoveGenerator.MAX_MOVES];
 	}
 
 	void resetMoveReversalData()
@@ -51,44 +64,198 @@ public final class QuiescentSearcher
 		moveReversers.forEach(x -> x.reset());
 	}
 
-	public int search(BoardState root) throws InterruptedException
+	/**
+	 * Sets the table quiescent nodes are probed in and stored to, it is usually
+	 * the one shared with the main search. Passing null disables hashing.
+	 */
+	void setTable(TranspositionTable table)
 	{
+		this.table = table;
+	}
+
+	/**
+	 * Enables or disables evaluating stand-pats lazily, skipping the expensive
+	 * terms when the cheap ones put the score far outside the window. It is
+	 * enabled by default.
+	 */
+	public void setLazyEvaluation(boolean lazyEvaluation)
+	{
+		this.lazyEvaluation = lazyEvaluation;
+	}
+
+	void resetCounts()
+	{
+		nodeCount = 0;
+		evaluator.resetStatistics();
+		tableProbes = 0;
+		tableHits = 0;
+		tableCutoffs = 0;
+	}
+
+	public long getNodeCount()
+	{
+		return nodeCount;
+	}
+
+	/**
+	 * @return the number of stand-pats evaluated lazily.
+	 */
+	public long getLazyEvaluationCount()
+	{
+		return evaluator.getLazyEvaluationCount();
+	}
+
+	/**
+	 * @return the number of lazily evaluated stand-pats which skipped at least one
+	 *         of the expensive terms.
+	 */
+	public long getLazyExitCount()
+	{
+		return evaluator.getLazyExitCount();
+	}
+
+	long getTableProbes()
+	{
+		return tableProbes;
+	}
+
+	long getTableHits()
+	{
+		return tableHits;
+	}
+
+	/**
+	 * @return the number of quiescent nodes whose value was bounded by a table
+	 *         entry so that no moves were searched from them.
+	 */
+	long getTableCutoffs()
+	{
+		return tableCutoffs;
+	}
+
+	/**
+	 * @return the greatest distance from its root of any node visited by the most
+	 *         recent search.
+	 */
+	int getMaxPlyReached()
+	{
+		return maxPlyReached;
+	}
+
+	/**
+	 * Searches the given state to completion, the state is left unchanged.
+	 */
+	public int search(BoardState root)
+	{
+		try {
+			return search(root, SearchClock.unlimited());
+		} catch (SearchAbortedException e) {
+			throw new AssertionError("An unlimited search cannot be aborted.");
+		}
+	}
+
+	/**
+	 * Searches the given state until complete or the clock says to stop, in which
+	 * case the state is restored before the search is aborted.
+	 */
+	int search(BoardState root, SearchClock clock) throws SearchAbortedException
+	{
+		this.clock = clock;
+		maxPlyReached = 0;
 		return search(root, IntConstants.INITIAL_ALPHA, IntConstants.INITIAL_BETA, DEPTH_CAP);
 	}
 
-	private int search(BoardState root, int alpha, int beta, int depth) throws InterruptedException
+	private int search(BoardState root, int alpha, int beta, int depth) throws SearchAbortedException
 	{
-		if (Thread.currentThread().isInterrupted()) {
-			throw new InterruptedException();
+		if (clock.hardLimitReached(++nodeCount)) {
+			throw new SearchAbortedException();
 		}
+		maxPlyReached = Math.max(maxPlyReached, DEPTH_CAP - depth);
 
-		Flow<ChessMove> movesToProbe = LegalMoves.getAllMoves(root);
-		Optional<ChessMove> firstMove = movesToProbe.nextOption();
-		GameTermination terminalState = TerminationState.of(root, firstMove.isPresent());
+		// Only the draws by rule, whether there is a legal move is found out later.
+		if (TerminationState.of(root, true).isTerminal()) {
+			return 0;
+		}
 
-		if (terminalState.isTerminal()) {
-			return -Math.abs(terminalState.value);
+		/*
+		 * Entries of any depth bound the quiescent value, those written by the main
+		 * search have looked at least as far. The notable move is tried first if it
+		 * is amongst the moves searched here.
+		 */
+		long rootHash = 0L, tableEntry = TranspositionTable.NO_ENTRY;
+		int hashMove = TranspositionTable.NO_MOVE;
+		if (table != null) {
+			rootHash = root.calculateHash();
+			tableEntry = table.get(rootHash);
+			tableProbes++;
+			if (tableEntry != TranspositionTable.NO_ENTRY) {
+				tableHits++;
+				hashMove = TranspositionTable.notableMoveOf(tableEntry);
+				int tableScore = TranspositionTable.scoreOf(tableEntry);
+				switch (TranspositionTable.typeOf(tableEntry)) {
+				case PRINCIPLE_VALUE:
+					tableCutoffs++;
+					return Math.min(beta, Math.max(alpha, tableScore));
+				case CUT:
+					if (tableScore >= beta) {
+						tableCutoffs++;
+						return beta;
+					}
+					break;
+				case ALL:
+					if (tableScore <= alpha) {
+						tableCutoffs++;
+						return alpha;
+					}
+					break;
+				}
+			}
 		}
-		Side active = root.getActiveSide(), passive = active.otherSide();
-		DetailedPieceLocations pieceLocs = root.getPieceLocations();
-		long passiveControl = SquareControl.calculate(root, passive);
 
-		long activeKingLoc = pieceLocs.locationsOf(ChessPieces.of(active).last());
-		boolean inCheck = bitboardsIntersect(activeKingLoc, passiveControl);
+		MoveGenerator generator = moveGenerators.get(depth);
+		int[] moves = moveBuffers[depth];
+		generator.initialise(root);
 
+		boolean inCheck = generator.isInCheck();
+		int end, standPat = 0, windowAlpha = alpha, filterAlpha = alpha;
+		boolean standPatBound = false;
 		if (inCheck) {
-			if (depth == 0) {
+			end = orderCaptures(root, moves, generator.generateCaptures(moves, 0), depth);
+			end = generator.generateQuiets(moves, end);
+			if (end == 0) {
+				store(rootHash, tableEntry, TreeNodeType.PRINCIPLE_VALUE, -IntConstants.WIN_VALUE, hashMove);
+				return -IntConstants.WIN_VALUE;
+			} else if (depth == 0) {
 				/*
 				 * I think this is sound, basically we reason that if we are in check then we
 				 * assume that it's not better than anything we've already found.
 				 */
 				return alpha;
 			}
-			movesToProbe = movesToProbe.insert(firstMove.get());
 		} else {
-			int standPat = evaluator.evaluate(root);
+			end = generator.generateCaptures(moves, 0);
+			if (end == 0 && generator.generateQuiets(moves, 0) == 0) {
+				// Stalemate, the only terminal state possible when not in check.
+				store(rootHash, tableEntry, TreeNodeType.PRINCIPLE_VALUE, 0, hashMove);
+				return 0;
+			}
+			/*
+			 * A lazy stand-pat outside the window only bounds the full one when the
+			 * skipped terms lie within their heuristic margins. It is good enough to
+			 * prune this node, but results which rest on it are kept out of the table
+			 * where they would outlive the search.
+			 */
+			if (lazyEvaluation) {
+				standPat = evaluator.evaluate(root, alpha, beta);
+				standPatBound = evaluator.isLastEvaluationBound();
+			} else {
+				standPat = evaluator.evaluate(root);
+			}
 
 			if (standPat >= beta) {
+				if (!standPatBound) {
+					store(rootHash, tableEntry, TreeNodeType.CUT, beta, hashMove);
+				}
 				return beta;
 			} else if (depth == 0) {
 				/*
@@ -106,30 +273,102 @@ public final class QuiescentSearcher
 				 * We return here if there is no way we can raise alpha by taking enemy
 				 * material.
 				 */
+				if (!standPatBound) {
+					store(rootHash, tableEntry, TreeNodeType.ALL, alpha, hashMove);
+				}
 				return alpha;
 			}
 
 			alpha = Math.max(alpha, standPat);
-			int finalizedAlpha = alpha;
-			movesToProbe = LegalMoves.getAttacks(root).filter(mv -> filterMove(root, mv, standPat, finalizedAlpha));
+			filterAlpha = alpha;
+			// Most valuable victim / least valuable attacker first, filtered lazily.
+			end = orderCaptures(root, moves, end, depth);
 		}
+		promoteHashMove(moves, end, hashMove);
 
-		while (movesToProbe.hasNext()) {
-			ChessMove nextMove = movesToProbe.next();
-			MoveReversalData reversingdata = moveReversers.get(depth - 1);
+		MoveReversalData reversingdata = moveReversers.get(depth - 1);
+		int bestMove = TranspositionTable.NO_MOVE;
+		for (int i = 0; i < end; i++) {
+			ChessMove nextMove = ChessMove.decode(moves[i]);
+			if (!inCheck && !filterMove(root, nextMove, standPat, filterAlpha)) {
+				continue;
+			}
 			nextMove.makeMove(root, reversingdata);
-			int score = -search(root, -beta, -alpha, depth - 1);
-			nextMove.reverseMove(root, reversingdata);
+			int score;
+			try {
+				score = -search(root, -beta, -alpha, depth - 1);
+			} finally {
+				nextMove.reverseMove(root, reversingdata);
+			}
 
 			if (score >= beta) {
+				store(rootHash, tableEntry, TreeNodeType.CUT, beta, moves[i]);
 				return beta;
+			} else if (score > alpha) {
+				alpha = score;
+				bestMove = moves[i];
 			}
-			alpha = Math.max(alpha, score);
 		}
 
+		// Captures were filtered against the stand-pat, so a bound taints the result.
+		if (standPatBound) {
+			return alpha;
+		} else if (alpha > windowAlpha) {
+			store(rootHash, tableEntry, TreeNodeType.PRINCIPLE_VALUE, alpha, bestMove);
+		} else {
+			store(rootHash, tableEntry, TreeNodeType.ALL, alpha, hashMove);
+		}
 		return alpha;
 	}
 
+	/**
+	 * Stores the result of a quiescent node at depth zero unless the table holds
+	 * an entry for the position written by the main search, which is worth more.
+	 */
+	private void store(long rootHash, long existingEntry, TreeNodeType type, int score, int notableMove)
+	{
+		if (table != null && (existingEntry == TranspositionTable.NO_ENTRY
+				|| TranspositionTable.depthOf(existingEntry) == 0)) {
+			table.set(rootHash, type, score, notableMove, 0);
+		}
+	}
+
+	/**
+	 * Moves the given move to the front of the buffer if it is present, shifting
+	 * the moves before it back by one.
+	 */
+	private static void promoteHashMove(int[] moves, int end, int hashMove)
+	{
+		if (hashMove == TranspositionTable.NO_MOVE) {
+			return;
+		}
+		for (int i = 0; i < end; i++) {
+			if (moves[i] == hashMove) {
+				System.arraycopy(moves, 0, moves, 1, i);
+				moves[0] = hashMove;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Sorts the captures in the buffer by most valuable victim / least valuable
+	 * attacker.
+	 *
+	 * @return the end index of the moves in the buffer.
+	 */
+	private int orderCaptures(BoardState root, int[] moves, int end, int depth)
+	{
+		int[] scores = moveScores[depth];
+		DetailedPieceLocations pieceLocs = root.getPieceLocations();
+		for (int i = 0; i < end; i++) {
+			ChessMove mv = ChessMove.decode(moves[i]);
+			scores[i] = MoveOrdering.mvvLva(pieceLocs, mv.getSource(), mv.getTarget());
+		}
+		MoveOrdering.sortByScore(moves, scores, 0, end);
+		return end;
+	}
+
 	private boolean filterMove(BoardState root, ChessMove move, int standPat, int alpha)
 	{
 		if (move instanceof EnpassantMove) {
@@ -0,0 +1,20 @@
+/**
+ *
+ */
+package jenjinn.movesearch;
+
+/**
+ * Thrown through the search when its {@link SearchClock} says it must stop.
+ * The stack trace is never needed so is not filled in.
+ *
+ * @author ThomasB
+ */
+final class SearchAbortedException extends Exception
+{
+	private static final long serialVersionUID = 1L;
+
+	SearchAbortedException()
+	{
+		super(null, null, false, false);
+	}
+}
@@ -0,0 +1,131 @@
+/**
+ *
+ */
+package jenjinn.movesearch;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides when a search should stop, shared by all the threads taking part in
+ * it. There are three limits measured from the creation of the clock: the
+ * hard limit after which the search is aborted wherever it is, the soft limit
+ * after which no new iteration is started, since it would very likely be
+ * aborted, and the easy move limit after which no new iteration is started if
+ * the best move has not changed for several iterations. Searchers poll the
+ * hard limit with {@link #hardLimitReached(long)} which only reads the system
+ * clock every {@link #CHECK_INTERVAL} nodes. A clock can be started unlimited
+ * and given a time limit later, which is how a ponder search becomes a timed
+ * one.
+ *
+ * @author ThomasB
+ */
+final class SearchClock
+{
+	/** The number of nodes between reads of the system clock, a power of two. */
+	static final int CHECK_INTERVAL = 1024;
+
+	/** The fractions of the time limit at which the soft and easy move limits fall. */
+	private static final int SOFT_LIMIT_DIVISOR = 2, EASY_MOVE_LIMIT_DIVISOR = 6;
+
+	/** How many iterations in a row must agree on the best move for it to be easy. */
+	static final int EASY_MOVE_ITERATIONS = 4;
+
+	/*
+	 * Volatile since the limits may be set while the searchers are polling, the
+	 * start time is always written first.
+	 */
+	private volatile long startTime = System.nanoTime();
+	private volatile long hardLimit, softLimit, easyMoveLimit;
+
+	private volatile boolean stopped = false;
+
+	private SearchClock(long hardLimit, long softLimit, long easyMoveLimit)
+	{
+		this.hardLimit = hardLimit;
+		this.softLimit = softLimit;
+		this.easyMoveLimit = easyMoveLimit;
+	}
+
+	/**
+	 * @return a clock which only stops when told to.
+	 */
+	static SearchClock unlimited()
+	{
+		return new SearchClock(Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE);
+	}
+
+	/**
+	 * @param timeLimit
+	 *            The hard limit in milliseconds, the other limits are fractions
+	 *            of it.
+	 */
+	static SearchClock withTimeLimit(long timeLimit)
+	{
+		SearchClock clock = unlimited();
+		clock.startTimeLimit(timeLimit);
+		return clock;
+	}
+
+	/**
+	 * Replaces the limits of this clock with ones measured from now.
+	 *
+	 * @param timeLimit
+	 *            The hard limit in milliseconds, the other limits are fractions
+	 *            of it.
+	 */
+	void startTimeLimit(long timeLimit)
+	{
+		long hardLimitNanos = TimeUnit.MILLISECONDS.toNanos(timeLimit);
+		startTime = System.nanoTime();
+		hardLimit = hardLimitNanos;
+		softLimit = hardLimitNanos / SOFT_LIMIT_DIVISOR;
+		easyMoveLimit = hardLimitNanos / EASY_MOVE_LIMIT_DIVISOR;
+	}
+
+	/**
+	 * Stops the search, the searchers will abort when they next poll this clock.
+	 */
+	void stop()
+	{
+		stopped = true;
+	}
+
+	boolean isStopped()
+	{
+		return stopped;
+	}
+
+	/**
+	 * @param nodeCount
+	 *            The number of nodes the polling searcher has visited, used to
+	 *            read the system clock only every {@link #CHECK_INTERVAL} nodes.
+	 * @return whether the search should be aborted.
+	 */
+	boolean hardLimitReached(long nodeCount)
+	{
+		if ((nodeCount & (CHECK_INTERVAL - 1)) == 0 && elapsed() >= hardLimit) {
+			stopped = true;
+		}
+		return stopped;
+	}
+
+	/**
+	 * @param stableIterations
+	 *            The number of consecutive completed iterations which have
+	 *            returned the same best move as the one before them.
+	 * @return whether another iteration of the search should be started.
+	 */
+	boolean canStartIteration(int stableIterations)
+	{
+		if (stopped) {
+			return false;
+		}
+		long elapsed = elapsed();
+		return elapsed < softLimit && (stableIterations < EASY_MOVE_ITERATIONS || elapsed < easyMoveLimit);
+	}
+
+	private long elapsed()
+	{
+		return System.nanoTime() - startTime;
+	}
+}
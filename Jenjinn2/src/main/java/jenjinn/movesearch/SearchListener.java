@@ -0,0 +1,31 @@
+/**
+ *
+ */
+package jenjinn.movesearch;
+
+/**
+ * Receives the statistics of the searches made by a {@link TreeSearcher}. The
+ * methods are called on the thread running the search, which waits for them,
+ * so they should return quickly. A snapshot is only gathered after each
+ * iteration when at least one listener is registered, the snapshot at the end
+ * of the search is always gathered for
+ * {@link TreeSearcher#getLastSearchStatistics()}.
+ *
+ * @author ThomasB
+ */
+public interface SearchListener
+{
+	/**
+	 * Called each time the main thread completes an iteration of the search.
+	 */
+	default void iterationCompleted(SearchStatistics statistics)
+	{
+	}
+
+	/**
+	 * Called once when the search finishes, with the totals of the whole search.
+	 */
+	default void searchCompleted(SearchStatistics statistics)
+	{
+	}
+}
@@ -0,0 +1,76 @@
+/**
+ *
+ */
+package jenjinn.movesearch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import jenjinn.moves.ChessMove;
+
+/**
+ * The outcome of searching one line from the root: the score of the line and
+ * the sequence of moves, starting with the root move, which both sides are
+ * expected to play.
+ *
+ * @author ThomasB
+ */
+public final class SearchResult
+{
+	private final int score, depth;
+	private final List<ChessMove> principalVariation;
+
+	SearchResult(int score, int depth, List<ChessMove> principalVariation)
+	{
+		if (principalVariation.isEmpty()) {
+			throw new IllegalArgumentException();
+		}
+		this.score = score;
+		this.depth = depth;
+		this.principalVariation = Collections.unmodifiableList(new ArrayList<>(principalVariation));
+	}
+
+	public ChessMove getBestMove()
+	{
+		return principalVariation.get(0);
+	}
+
+	/**
+	 * @return the score of the line in centipawns from the point of view of the
+	 *         side to move at the root.
+	 */
+	public int getScore()
+	{
+		return score;
+	}
+
+	/**
+	 * @return the depth of the iteration which produced this result.
+	 */
+	public int getDepth()
+	{
+		return depth;
+	}
+
+	/**
+	 * @return the expected line of play, starting with the best move. It is taken
+	 *         from the search itself and extended using the transposition table
+	 *         where the search stopped early, so it may be shorter or longer than
+	 *         the depth.
+	 */
+	public List<ChessMove> getPrincipalVariation()
+	{
+		return principalVariation;
+	}
+
+	@Override
+	public String toString()
+	{
+		StringBuilder line = new StringBuilder();
+		for (ChessMove mv : principalVariation) {
+			line.append(' ').append(mv.toCompactString());
+		}
+		return String.format("depth %d score %d pv%s", depth, score, line);
+	}
+}
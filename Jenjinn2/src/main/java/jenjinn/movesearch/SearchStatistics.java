@@ -0,0 +1,194 @@
+/**
+ *
+ */
+package jenjinn.movesearch;
+
+import java.util.Arrays;
+
+/**
+ * An immutable snapshot of what a search has done so far, totalled over all of
+ * the threads taking part. The depth is that of the last iteration completed by
+ * the main thread and the time of that iteration is reported alongside the
+ * time since the search started.
+ *
+ * @author ThomasB
+ */
+public final class SearchStatistics
+{
+	/**
+	 * The number of buckets cutoffs are counted in by the index of the move which
+	 * caused them, the last counting every move at that index or later.
+	 */
+	public static final int CUTOFF_INDEX_BUCKETS = 8;
+
+	private final int depth, selectiveDepth;
+	private final long nodes, quiescentNodes;
+	private final long tableProbes, tableHits, tableCutoffs;
+	private final long quiescentTableProbes, quiescentTableHits, quiescentTableCutoffs;
+	private final long[] cutoffsByMoveIndex;
+	private final long iterationTime, elapsedTime;
+
+	SearchStatistics(int depth, int selectiveDepth, long nodes, long quiescentNodes, long tableProbes,
+			long tableHits, long tableCutoffs, long quiescentTableProbes, long quiescentTableHits,
+			long quiescentTableCutoffs, long[] cutoffsByMoveIndex, long iterationTime, long elapsedTime)
+	{
+		if (cutoffsByMoveIndex.length != CUTOFF_INDEX_BUCKETS) {
+			throw new IllegalArgumentException();
+		}
+		this.depth = depth;
+		this.selectiveDepth = selectiveDepth;
+		this.nodes = nodes;
+		this.quiescentNodes = quiescentNodes;
+		this.tableProbes = tableProbes;
+		this.tableHits = tableHits;
+		this.tableCutoffs = tableCutoffs;
+		this.quiescentTableProbes = quiescentTableProbes;
+		this.quiescentTableHits = quiescentTableHits;
+		this.quiescentTableCutoffs = quiescentTableCutoffs;
+		this.cutoffsByMoveIndex = cutoffsByMoveIndex.clone();
+		this.iterationTime = iterationTime;
+		this.elapsedTime = elapsedTime;
+	}
+
+	/**
+	 * @return the depth of the last iteration completed by the main thread.
+	 */
+	public int getDepth()
+	{
+		return depth;
+	}
+
+	/**
+	 * @return the greatest distance from the root of any node visited, including
+	 *         those in the quiescent search.
+	 */
+	public int getSelectiveDepth()
+	{
+		return selectiveDepth;
+	}
+
+	/**
+	 * @return the number of nodes visited by the main, full width, search.
+	 */
+	public long getNodes()
+	{
+		return nodes;
+	}
+
+	public long getQuiescentNodes()
+	{
+		return quiescentNodes;
+	}
+
+	public long getTotalNodes()
+	{
+		return nodes + quiescentNodes;
+	}
+
+	/**
+	 * @return how many times the main search looked up a position in the
+	 *         transposition table.
+	 */
+	public long getTableProbes()
+	{
+		return tableProbes;
+	}
+
+	/**
+	 * @return how many of the probes found an entry for the position.
+	 */
+	public long getTableHits()
+	{
+		return tableHits;
+	}
+
+	/**
+	 * @return how many of the hits were deep enough to end the search of their
+	 *         node without searching any moves.
+	 */
+	public long getTableCutoffs()
+	{
+		return tableCutoffs;
+	}
+
+	/**
+	 * @return how many times the quiescent search looked up a position in the
+	 *         transposition table, zero if quiescent hashing is disabled.
+	 */
+	public long getQuiescentTableProbes()
+	{
+		return quiescentTableProbes;
+	}
+
+	/**
+	 * @return how many of the quiescent probes found an entry for the position.
+	 */
+	public long getQuiescentTableHits()
+	{
+		return quiescentTableHits;
+	}
+
+	/**
+	 * @return how many of the quiescent hits bounded the value of their node so
+	 *         that no moves were searched from it.
+	 */
+	public long getQuiescentTableCutoffs()
+	{
+		return quiescentTableCutoffs;
+	}
+
+	/**
+	 * @return the number of beta cutoffs caused by the move at each index in the
+	 *         order the moves were searched, excluding those made by the null
+	 *         move. The last bucket also counts the moves after it.
+	 */
+	public long[] getCutoffsByMoveIndex()
+	{
+		return cutoffsByMoveIndex.clone();
+	}
+
+	public long getCutoffCount()
+	{
+		return Arrays.stream(cutoffsByMoveIndex).sum();
+	}
+
+	/**
+	 * @return the proportion of the cutoffs caused by the first move searched, a
+	 *         measure of the quality of the move ordering.
+	 */
+	public double getFirstMoveCutoffRate()
+	{
+		long cutoffs = getCutoffCount();
+		return cutoffs == 0 ? 0 : cutoffsByMoveIndex[0] / (double) cutoffs;
+	}
+
+	/**
+	 * @return the time in milliseconds taken by the last completed iteration.
+	 */
+	public long getIterationTime()
+	{
+		return iterationTime;
+	}
+
+	/**
+	 * @return the time in milliseconds since the search started.
+	 */
+	public long getElapsedTime()
+	{
+		return elapsedTime;
+	}
+
+	public long getNodesPerSecond()
+	{
+		return elapsedTime == 0 ? 0 : 1000 * getTotalNodes() / elapsedTime;
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.format("depth %d seldepth %d nodes %d qnodes %d nps %d time %d itertime %d "
+				+ "tt %d/%d/%d qtt %d/%d/%d cutoffs %s", depth, selectiveDepth, nodes, quiescentNodes,
+				getNodesPerSecond(), elapsedTime, iterationTime, tableProbes, tableHits, tableCutoffs,
+				quiescentTableProbes, quiescentTableHits, quiescentTableCutoffs, Arrays.toString(cutoffsByMoveIndex));
+	}
+}
@@ -0,0 +1,757 @@
+/**
+ *
+ */
+package jenjinn.movesearch;
+
+import static jenjinn.movesearch.IntConstants.INITIAL_ALPHA;
+import static jenjinn.movesearch.IntConstants.INITIAL_BETA;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import jenjinn.base.Square;
+import jenjinn.boardstate.BoardState;
+import jenjinn.boardstate.DetailedPieceLocations;
+import jenjinn.boardstate.MoveReversalData;
+import jenjinn.boardstate.calculators.LegalMoves;
+import jenjinn.boardstate.calculators.MoveGenerator;
+import jenjinn.boardstate.calculators.TerminationState;
+import jenjinn.moves.ChessMove;
+import jenjinn.moves.PromotionMove;
+import jenjinn.pieces.ChessPieces;
+import jenjinn.pieces.Piece;
+import jflow.iterators.factories.IterRange;
+import jflow.seq.Seq;
+
+/**
+ * Performs the alpha-beta search for a single thread. Each worker owns the
+ * mutable state it needs to walk the tree (move reversal data, its own
+ * quiescent searcher) so several workers can search copies of the same root
+ * at once, communicating only through the shared transposition table.
+ *
+ * @author ThomasB
+ */
+final class SearchWorker
+{
+	private static final int KILLERS_PER_PLY = 2;
+	/** Half the width of the first aspiration window, in centipawns. */
+	private static final int ASPIRATION_WINDOW = 50;
+	/** Beyond this the window is opened fully, for instance when a mate is found. */
+	private static final int MAX_ASPIRATION_WINDOW = 800;
+	/** How much shallower than the node the null move is searched. */
+	private static final int NULL_MOVE_REDUCTION = 2;
+	private static final int NULL_MOVE_MIN_DEPTH = 3;
+	/** Quiet moves are only reduced once this many moves have been searched. */
+	private static final int LMR_MIN_MOVES_SEARCHED = 4;
+	private static final int LMR_MIN_DEPTH = 3;
+	/** The history table is halved when any entry passes this. */
+	private static final int HISTORY_LIMIT = 1 << 20;
+
+	private final TranspositionTable table;
+	private final QuiescentSearcher quiescent = new QuiescentSearcher();
+	private final Seq<MoveReversalData> moveReversers;
+	private final Seq<MoveGenerator> moveGenerators;
+	private final int[][] moveBuffers;
+	private final int[][] moveScores;
+	/** Indexed by distance from the root, see {@link #ply}. */
+	private final int[][] killerMoves;
+	/** Indexed by side to move then the from-to pair of a quiet move. */
+	private final int[][] history = new int[2][64 * 64];
+	/**
+	 * The triangular principal variation table, the line found below the node at
+	 * each ply occupies the entries from that ply up to its length.
+	 */
+	private final int[][] pvTable;
+	private final int[] pvLength;
+
+	/** The number of root moves to find exact scores and lines for. */
+	private int lineCount = 1;
+	// The root moves of the last iteration with their scores and lines.
+	private Seq<ChessMove> rootMoves;
+	private int[] rootScores;
+	private int[][] rootLines;
+
+	private int bestFirstMoveIndex = -1;
+	private int previousScore;
+	private boolean hasPreviousScore = false;
+	private long nodeCount = 0;
+	private SearchClock clock = SearchClock.unlimited();
+	/** Distance from the root of the node being searched. */
+	private int ply = 0;
+
+	// Statistics, cleared at the start of each search.
+	private final long[] cutoffsByMoveIndex = new long[SearchStatistics.CUTOFF_INDEX_BUCKETS];
+	private long tableProbes = 0, tableHits = 0, tableCutoffs = 0;
+	private int selectiveDepth = 0;
+
+	private boolean nullMovePruning = true;
+	private boolean lateMoveReductions = true;
+
+	SearchWorker(TranspositionTable table, int maxDepth)
+	{
+		this.table = table;
+		this.quiescent.setTable(table);
+		this.moveReversers = IterRange.to(maxDepth + 1).mapToObject(i -> new MoveReversalData()).toSeq();
+		this.moveGenerators = IterRange.to(maxDepth + 1).mapToObject(i -> new MoveGenerator()).toSeq();
+		this.moveBuffers = new int[maxDepth + 1][MoveGenerator.MAX_MOVES];
+		this.moveScores = new int[maxDepth + 1][MoveGenerator.MAX_MOVES];
+		// Every ply reduces the depth so the ply cannot exceed the maximum depth.
+		this.killerMoves = new int[maxDepth + 1][KILLERS_PER_PLY];
+		this.pvTable = new int[maxDepth + 2][maxDepth + 2];
+		this.pvLength = new int[maxDepth + 2];
+		clearKillerMoves();
+	}
+
+	/**
+	 * Clears the move ordering tables and counts left over from the previous
+	 * search.
+	 */
+	void prepareForNewSearch()
+	{
+		bestFirstMoveIndex = -1;
+		hasPreviousScore = false;
+		rootMoves = null;
+		rootScores = null;
+		rootLines = null;
+		nodeCount = 0;
+		ply = 0;
+		Arrays.fill(cutoffsByMoveIndex, 0);
+		tableProbes = 0;
+		tableHits = 0;
+		tableCutoffs = 0;
+		selectiveDepth = 0;
+		quiescent.resetCounts();
+		clearKillerMoves();
+		for (int[] sideHistory : history) {
+			Arrays.fill(sideHistory, 0);
+		}
+	}
+
+	private void clearKillerMoves()
+	{
+		for (int[] killers : killerMoves) {
+			Arrays.fill(killers, TranspositionTable.NO_MOVE);
+		}
+	}
+
+	void setNullMovePruning(boolean nullMovePruning)
+	{
+		this.nullMovePruning = nullMovePruning;
+	}
+
+	void setLateMoveReductions(boolean lateMoveReductions)
+	{
+		this.lateMoveReductions = lateMoveReductions;
+	}
+
+	void setQuiescentHashing(boolean quiescentHashing)
+	{
+		quiescent.setTable(quiescentHashing ? table : null);
+	}
+
+	void setLazyEvaluation(boolean lazyEvaluation)
+	{
+		quiescent.setLazyEvaluation(lazyEvaluation);
+	}
+
+	/**
+	 * Sets how many of the best root moves subsequent searches find exact scores
+	 * and lines for, each one beyond the first makes the search slower.
+	 */
+	void setLineCount(int lineCount)
+	{
+		this.lineCount = lineCount;
+	}
+
+	void resetMoveReversalData()
+	{
+		moveReversers.forEach(x -> x.reset());
+		quiescent.resetMoveReversalData();
+	}
+
+	/**
+	 * @return the number of main and quiescent nodes visited by this worker since
+	 *         the last call to {@link #prepareForNewSearch()}.
+	 */
+	long getNodeCount()
+	{
+		return nodeCount + quiescent.getNodeCount();
+	}
+
+	long getQuiescentNodeCount()
+	{
+		return quiescent.getNodeCount();
+	}
+
+	long getTableProbes()
+	{
+		return tableProbes;
+	}
+
+	long getTableHits()
+	{
+		return tableHits;
+	}
+
+	long getTableCutoffs()
+	{
+		return tableCutoffs;
+	}
+
+	long getQuiescentTableProbes()
+	{
+		return quiescent.getTableProbes();
+	}
+
+	long getQuiescentTableHits()
+	{
+		return quiescent.getTableHits();
+	}
+
+	long getQuiescentTableCutoffs()
+	{
+		return quiescent.getTableCutoffs();
+	}
+
+	/**
+	 * @return the greatest distance from the root of any node visited since the
+	 *         last call to {@link #prepareForNewSearch()}.
+	 */
+	int getSelectiveDepth()
+	{
+		return selectiveDepth;
+	}
+
+	/**
+	 * @return the cutoff counts by move index, see
+	 *         {@link SearchStatistics#getCutoffsByMoveIndex()}. The array is live
+	 *         and must not be modified.
+	 */
+	long[] getCutoffsByMoveIndex()
+	{
+		return cutoffsByMoveIndex;
+	}
+
+	/**
+	 * @return the number of beta cutoffs in the main search since the last call
+	 *         to {@link #prepareForNewSearch()}, excluding those made by the null
+	 *         move.
+	 */
+	long getCutoffCount()
+	{
+		return Arrays.stream(cutoffsByMoveIndex).sum();
+	}
+
+	/**
+	 * @return how many of the cutoffs counted by {@link #getCutoffCount()} were
+	 *         caused by the first move searched at their node.
+	 */
+	long getFirstMoveCutoffCount()
+	{
+		return cutoffsByMoveIndex[0];
+	}
+
+	QuiescentSearcher getQuiescent()
+	{
+		return quiescent;
+	}
+
+	/**
+	 * Iteratively deepens from the start depth until either the depth limit is
+	 * reached or the clock stops. Used by helper threads whose only purpose is to
+	 * populate the shared table.
+	 */
+	void searchUntilStopped(BoardState root, int startDepth, int depthLimit, SearchClock clock)
+	{
+		try {
+			for (int depth = startDepth; depth <= depthLimit; depth++) {
+				getBestMoveFrom(root, depth, clock);
+			}
+		} catch (SearchAbortedException e) {
+			resetMoveReversalData();
+		}
+	}
+
+	/**
+	 * Searches the root to the given depth. Once an earlier iteration of this
+	 * search has produced a score the root is first searched with an aspiration
+	 * window centred on that score, which is widened on whichever side the
+	 * result falls outside it until the result lies inside. If the clock stops
+	 * first the search is aborted, leaving the root as it was.
+	 */
+	ChessMove getBestMoveFrom(BoardState root, int depth, SearchClock clock) throws SearchAbortedException
+	{
+		this.clock = clock;
+		if (lineCount > 1) {
+			return searchRootLines(root, depth);
+		}
+		if (!hasPreviousScore) {
+			return searchRoot(root, depth, INITIAL_ALPHA, INITIAL_BETA);
+		}
+		int delta = ASPIRATION_WINDOW;
+		int alpha = Math.max(INITIAL_ALPHA, previousScore - delta);
+		int beta = Math.min(INITIAL_BETA, previousScore + delta);
+		while (true) {
+			ChessMove bestMove = searchRoot(root, depth, alpha, beta);
+			int score = previousScore;
+			if (score <= alpha && alpha > INITIAL_ALPHA) {
+				delta *= 2;
+				alpha = delta > MAX_ASPIRATION_WINDOW ? INITIAL_ALPHA : Math.max(INITIAL_ALPHA, score - delta);
+			} else if (score >= beta && beta < INITIAL_BETA) {
+				delta *= 2;
+				beta = delta > MAX_ASPIRATION_WINDOW ? INITIAL_BETA : Math.min(INITIAL_BETA, score + delta);
+			} else {
+				return bestMove;
+			}
+		}
+	}
+
+	/**
+	 * Searches the root moves within the given window, the first with the full
+	 * window and the rest with a null window which is only widened if the move
+	 * proves better than the best so far. If every move fails low the best move
+	 * of the previous iteration is kept.
+	 */
+	private ChessMove searchRoot(BoardState root, int depth, int alpha, int beta) throws SearchAbortedException
+	{
+		Seq<ChessMove> legalMoves = LegalMoves.getAllMoves(root).toSeq();
+		int[] indices = IterRange.to(legalMoves.size()).toArray();
+		changeFirstIndex(indices, bestFirstMoveIndex);
+		rootMoves = legalMoves;
+		pvLength[0] = 0;
+
+		for (int i = 0; i < indices.length && alpha < beta; i++) {
+			ChessMove mv = legalMoves.get(indices[i]);
+			int bestReply = searchMove(root, mv, alpha, beta, depth, i == 0, 0);
+			if (bestReply > alpha) {
+				alpha = bestReply;
+				bestFirstMoveIndex = indices[i];
+				updatePrincipalVariation(mv.toCompactEncoding());
+			}
+		}
+		previousScore = alpha;
+		hasPreviousScore = true;
+		return legalMoves.get(bestFirstMoveIndex);
+	}
+
+	/**
+	 * Searches every root move with a window whose lower bound is the score of
+	 * the worst of the best lines found so far, so the moves which make it into
+	 * the best lines get exact scores. The moves are searched in order of their
+	 * scores in the previous iteration and aspiration windows are not used.
+	 */
+	private ChessMove searchRootLines(BoardState root, int depth) throws SearchAbortedException
+	{
+		Seq<ChessMove> legalMoves = LegalMoves.getAllMoves(root).toSeq();
+		int moveCount = legalMoves.size();
+		int[] indices = IterRange.to(moveCount).toArray();
+		if (rootScores != null && rootScores.length == moveCount) {
+			MoveOrdering.sortByScore(indices, rootScores.clone(), 0, moveCount);
+		}
+		int[] scores = new int[moveCount];
+		int[][] lines = new int[moveCount][];
+
+		for (int i = 0; i < moveCount; i++) {
+			int index = indices[i];
+			ChessMove mv = legalMoves.get(index);
+			int alpha = worstBestLineScore(scores, lines);
+			int value = searchMove(root, mv, alpha, INITIAL_BETA, depth, i < lineCount, 0);
+			scores[index] = value;
+			if (value > alpha) {
+				pvLength[0] = 0;
+				updatePrincipalVariation(mv.toCompactEncoding());
+				lines[index] = Arrays.copyOf(pvTable[0], pvLength[0]);
+			}
+		}
+		bestFirstMoveIndex = bestLineIndex(scores, lines);
+		previousScore = scores[bestFirstMoveIndex];
+		hasPreviousScore = true;
+		rootMoves = legalMoves;
+		rootScores = scores;
+		rootLines = lines;
+		return legalMoves.get(bestFirstMoveIndex);
+	}
+
+	/**
+	 * @return the lowest score amongst the best lines found so far, which a move
+	 *         must beat to join them, or the lowest possible score if fewer lines
+	 *         than the line count have been found.
+	 */
+	private int worstBestLineScore(int[] scores, int[][] lines)
+	{
+		int[] exactScores = IterRange.to(scores.length).filter(i -> lines[i] != null).map(i -> scores[i]).toArray();
+		if (exactScores.length < lineCount) {
+			return INITIAL_ALPHA;
+		}
+		Arrays.sort(exactScores);
+		return exactScores[exactScores.length - lineCount];
+	}
+
+	private static int bestLineIndex(int[] scores, int[][] lines)
+	{
+		int best = -1;
+		for (int i = 0; i < scores.length; i++) {
+			if (lines[i] != null && (best < 0 || scores[i] > scores[best])) {
+				best = i;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * @return the best lines found by the last completed iteration, best first,
+	 *         each extended from the table if the search stopped short of the
+	 *         given depth.
+	 */
+	List<SearchResult> getResults(BoardState root, int depth)
+	{
+		if (lineCount == 1) {
+			int[] line = pvLength[0] > 0 ? Arrays.copyOf(pvTable[0], pvLength[0])
+					: new int[] { rootMoves.get(bestFirstMoveIndex).toCompactEncoding() };
+			return Collections.singletonList(createResult(root, line, previousScore, depth));
+		}
+		int[] indices = IterRange.to(rootScores.length).filter(i -> rootLines[i] != null).toArray();
+		MoveOrdering.sortByScore(indices, IterRange.to(indices.length).map(i -> rootScores[indices[i]]).toArray(),
+				0, indices.length);
+		List<SearchResult> results = new ArrayList<>();
+		for (int i = 0; i < Math.min(lineCount, indices.length); i++) {
+			results.add(createResult(root, rootLines[indices[i]], rootScores[indices[i]], depth));
+		}
+		return results;
+	}
+
+	private SearchResult createResult(BoardState root, int[] line, int score, int depth)
+	{
+		BoardState position = root.copy();
+		List<ChessMove> moves = new ArrayList<>(Math.max(depth, line.length));
+		for (int encoding : line) {
+			ChessMove mv = ChessMove.decode(encoding);
+			mv.makeMove(position);
+			moves.add(mv);
+		}
+		// Table cutoffs cut the line short, the table often knows how it goes on.
+		while (moves.size() < depth) {
+			long tableEntry = table.get(position.calculateHash());
+			int notableMove = tableEntry == TranspositionTable.NO_ENTRY ? TranspositionTable.NO_MOVE
+					: TranspositionTable.notableMoveOf(tableEntry);
+			if (notableMove == TranspositionTable.NO_MOVE) {
+				break;
+			}
+			ChessMove mv = ChessMove.decode(notableMove);
+			if (!LegalMoves.isLegal(position, mv)) {
+				break;
+			}
+			mv.makeMove(position);
+			moves.add(mv);
+		}
+		return new SearchResult(score, depth, moves);
+	}
+
+	private int negamax(BoardState root, int alpha, int beta, int depth, boolean nullMoveAllowed)
+			throws SearchAbortedException
+	{
+		if (clock.hardLimitReached(++nodeCount)) {
+			throw new SearchAbortedException();
+		}
+		pvLength[ply] = ply;
+
+		if (depth == 0) {
+			// The quiescent search recognises mates, stalemates and draws by rule.
+			int score = quiescent.search(root, clock);
+			selectiveDepth = Math.max(selectiveDepth, ply + quiescent.getMaxPlyReached());
+			return score;
+		}
+
+		// Draws by rule come first so that a table entry cannot hide a repetition.
+		if (TerminationState.of(root, true).isTerminal()) {
+			return 0;
+		}
+
+		long rootHash = root.calculateHash();
+		long tableEntry = table.get(rootHash);
+		tableProbes++;
+		if (tableEntry != TranspositionTable.NO_ENTRY) {
+			tableHits++;
+			if (TranspositionTable.depthOf(tableEntry) >= depth) {
+				int tableScore = TranspositionTable.scoreOf(tableEntry);
+				switch (TranspositionTable.typeOf(tableEntry)) {
+				case PRINCIPLE_VALUE:
+					tableCutoffs++;
+					return tableScore;
+				case CUT:
+					alpha = Math.max(alpha, tableScore);
+					break;
+				case ALL:
+					beta = Math.min(beta, tableScore);
+					break;
+				}
+				if (alpha >= beta) {
+					tableCutoffs++;
+					return beta;
+				}
+			}
+		}
+
+		// The node is searched so the moves and check information are needed.
+		ChessMove hashMove = null;
+		if (tableEntry != TranspositionTable.NO_ENTRY) {
+			int notableMove = TranspositionTable.notableMoveOf(tableEntry);
+			if (notableMove != TranspositionTable.NO_MOVE) {
+				ChessMove candidate = ChessMove.decode(notableMove);
+				hashMove = LegalMoves.isLegal(root, candidate) ? candidate : null;
+			}
+		}
+		MoveGenerator generator = moveGenerators.get(depth);
+		int[] moves = moveBuffers[depth];
+		generator.initialise(root);
+		boolean inCheck = generator.isInCheck();
+		// A legal hash move means we can skip generation when checking for mate.
+		if (hashMove == null && !generator.hasLegalMoves(moves, 0)) {
+			return inCheck ? -IntConstants.WIN_VALUE : 0;
+		}
+		if (nullMovePruning && nullMoveAllowed && depth >= NULL_MOVE_MIN_DEPTH && !inCheck
+				&& beta - alpha == 1 && beta < IntConstants.WIN_VALUE && hasNonPawnMaterial(root)) {
+			if (searchNullMove(root, beta, depth) >= beta) {
+				return beta;
+			}
+		}
+		int windowAlpha = alpha;
+
+		int bestValue = -IntConstants.MAX_NEGATABLE_VALUE;
+		int hashEncoding = TranspositionTable.NO_MOVE, bestMove = TranspositionTable.NO_MOVE;
+		if (hashMove != null) {
+			hashEncoding = hashMove.toCompactEncoding();
+			bestValue = searchMove(root, hashMove, alpha, beta, depth, true, 0);
+			bestMove = hashEncoding;
+			if (bestValue > alpha) {
+				alpha = bestValue;
+				updatePrincipalVariation(hashEncoding);
+			}
+			if (alpha >= beta) {
+				cutoffsByMoveIndex[0]++;
+			}
+		}
+
+		/*
+		 * The remaining moves are generated in two stages, captures ordered by most
+		 * valuable victim / least valuable attacker and then quiet moves ordered so
+		 * that the killers for this ply come first followed by the rest in order
+		 * of their history scores. Each stage is
+		 * only generated if the previous ones failed to cause a cutoff. Only the
+		 * first move searched gets the full window and quiet moves ordered after the
+		 * killers are searched to a reduced depth, unless they prove better than the
+		 * moves before them.
+		 */
+		int movesSearched = bestMove == TranspositionTable.NO_MOVE ? 0 : 1;
+		for (int stage = 0; stage < 2 && alpha < beta; stage++) {
+			boolean quietStage = stage == 1;
+			int end = quietStage
+					? orderQuiets(root, moves, generator.generateQuiets(moves, 0), depth)
+					: orderCaptures(root, moves, generator.generateCaptures(moves, 0), depth);
+			for (int i = 0; i < end && alpha < beta; i++) {
+				int encoding = moves[i];
+				if (encoding == hashEncoding) {
+					continue;
+				}
+				ChessMove mv = ChessMove.decode(encoding);
+				boolean reduce = lateMoveReductions && quietStage && i >= KILLERS_PER_PLY
+						&& movesSearched >= LMR_MIN_MOVES_SEARCHED && depth >= LMR_MIN_DEPTH
+						&& !inCheck && !(mv instanceof PromotionMove);
+				int value = searchMove(root, mv, alpha, beta, depth, movesSearched == 0, reduce ? 1 : 0);
+				movesSearched++;
+				if (value > bestValue) {
+					bestValue = value;
+					bestMove = encoding;
+				}
+				if (value > alpha) {
+					alpha = value;
+					updatePrincipalVariation(encoding);
+				}
+				if (alpha >= beta) {
+					cutoffsByMoveIndex[Math.min(movesSearched, cutoffsByMoveIndex.length) - 1]++;
+					if (quietStage) {
+						storeKillerMove(encoding);
+						updateHistory(root, encoding, depth);
+					}
+				}
+			}
+		}
+
+		if (bestValue <= windowAlpha) {
+			/*
+			 * No move is known to be best at an all node, if we are overwriting an
+			 * entry for this same position we keep the move it recommended.
+			 */
+			table.set(rootHash, TreeNodeType.ALL, bestValue, hashEncoding, depth);
+		} else if (bestValue >= beta) {
+			table.set(rootHash, TreeNodeType.CUT, bestValue, bestMove, depth);
+		} else {
+			table.set(rootHash, TreeNodeType.PRINCIPLE_VALUE, bestValue, bestMove, depth);
+		}
+		return Math.min(beta, Math.max(alpha, bestValue));
+	}
+
+	/**
+	 * Makes the line at the current ply the given move followed by the line found
+	 * below it, which the search of that move has just left at the next ply.
+	 */
+	private void updatePrincipalVariation(int encoding)
+	{
+		int[] line = pvTable[ply];
+		int childLength = pvLength[ply + 1];
+		line[ply] = encoding;
+		System.arraycopy(pvTable[ply + 1], ply + 1, line, ply + 1, childLength - ply - 1);
+		pvLength[ply] = childLength;
+	}
+
+	/**
+	 * Sorts the captures in the buffer by most valuable victim / least valuable
+	 * attacker.
+	 *
+	 * @return the end index of the moves in the buffer.
+	 */
+	private int orderCaptures(BoardState root, int[] moves, int end, int depth)
+	{
+		int[] scores = moveScores[depth];
+		DetailedPieceLocations pieceLocations = root.getPieceLocations();
+		for (int i = 0; i < end; i++) {
+			ChessMove mv = ChessMove.decode(moves[i]);
+			scores[i] = MoveOrdering.mvvLva(pieceLocations, mv.getSource(), mv.getTarget());
+		}
+		MoveOrdering.sortByScore(moves, scores, 0, end);
+		return end;
+	}
+
+	/**
+	 * Sorts the quiet moves in the buffer so that any killer moves for the
+	 * current ply come first and the rest follow in order of their history
+	 * scores. Killers are kept by ply rather than remaining depth because sibling
+	 * nodes share a ply even when reductions leave them with different depths.
+	 *
+	 * @return the end index of the moves in the buffer.
+	 */
+	private int orderQuiets(BoardState root, int[] moves, int end, int depth)
+	{
+		int[] scores = moveScores[depth];
+		int[] sideHistory = history[root.getActiveSide().ordinal()];
+		int[] killers = killerMoves[ply];
+		for (int i = 0; i < end; i++) {
+			int encoding = moves[i];
+			if (encoding == killers[0]) {
+				scores[i] = Integer.MAX_VALUE;
+			} else if (encoding == killers[1]) {
+				scores[i] = Integer.MAX_VALUE - 1;
+			} else {
+				scores[i] = sideHistory[MoveOrdering.butterflyIndex(encoding)];
+			}
+		}
+		MoveOrdering.sortByScore(moves, scores, 0, end);
+		return end;
+	}
+
+	/**
+	 * Rewards a quiet move which caused a cutoff, the deeper the cutoff the bigger
+	 * the reward.
+	 */
+	private void updateHistory(BoardState root, int encoding, int depth)
+	{
+		int[] sideHistory = history[root.getActiveSide().ordinal()];
+		int index = MoveOrdering.butterflyIndex(encoding);
+		sideHistory[index] += depth * depth;
+		if (sideHistory[index] > HISTORY_LIMIT) {
+			for (int i = 0; i < sideHistory.length; i++) {
+				sideHistory[i] /= 2;
+			}
+		}
+	}
+
+	private void storeKillerMove(int encoding)
+	{
+		int[] killers = killerMoves[ply];
+		if (killers[0] != encoding) {
+			killers[1] = killers[0];
+			killers[0] = encoding;
+		}
+	}
+
+	/**
+	 * Searches the given move with the full window if it is the first move at
+	 * its node. Otherwise it is expected to be no better than the moves already
+	 * searched, which is checked with a null window search, reduced by the given
+	 * number of plies, and only if that fails high is the move searched again at
+	 * full depth and then with the full window. Moves which give check are never
+	 * reduced.
+	 */
+	private int searchMove(BoardState root, ChessMove mv, int alpha, int beta, int depth, boolean firstMove,
+			int reduction) throws SearchAbortedException
+	{
+		MoveReversalData reverser = moveReversers.get(depth);
+		mv.makeMove(root, reverser);
+		ply++;
+		try {
+			if (reduction > 0 && LegalMoves.isInCheck(root)) {
+				reduction = 0;
+			}
+			if (firstMove) {
+				return -negamax(root, -beta, -alpha, depth - 1, true);
+			}
+			int value = -negamax(root, -alpha - 1, -alpha, depth - 1 - reduction, true);
+			if (value > alpha && reduction > 0) {
+				value = -negamax(root, -alpha - 1, -alpha, depth - 1, true);
+			}
+			if (value > alpha && value < beta) {
+				value = -negamax(root, -beta, -alpha, depth - 1, true);
+			}
+			return value;
+		} finally {
+			ply--;
+			mv.reverseMove(root, reverser);
+		}
+	}
+
+	/**
+	 * Passes the move to the other side and searches the resulting position at a
+	 * reduced depth with a null window at beta. If the other side still cannot
+	 * get below beta then a real move almost certainly would not either, the
+	 * exception being zugzwang which is why the caller avoids it when the active
+	 * side has only pawns left.
+	 */
+	private int searchNullMove(BoardState root, int beta, int depth) throws SearchAbortedException
+	{
+		Square enpassantSquare = root.getEnPassantSquare();
+		root.setEnPassantSquare(null);
+		root.switchActiveSide();
+		ply++;
+		try {
+			return -negamax(root, -beta, -beta + 1, Math.max(0, depth - 1 - NULL_MOVE_REDUCTION), false);
+		} finally {
+			ply--;
+			root.switchActiveSide();
+			root.setEnPassantSquare(enpassantSquare);
+		}
+	}
+
+	private static boolean hasNonPawnMaterial(BoardState state)
+	{
+		DetailedPieceLocations pieceLocations = state.getPieceLocations();
+		Seq<Piece> pieces = ChessPieces.of(state.getActiveSide());
+		// The pieces are ordered pawn, knight, bishop, rook, queen, king.
+		for (int i = 1; i < 5; i++) {
+			if (pieceLocations.locationsOf(pieces.get(i)) != 0L) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void changeFirstIndex(int[] indices, int recommendedMoveIndex)
+	{
+		if (recommendedMoveIndex > -1) {
+			int tmp = indices[0];
+			indices[0] = indices[recommendedMoveIndex];
+			indices[recommendedMoveIndex] = tmp;
+		}
+	}
+}
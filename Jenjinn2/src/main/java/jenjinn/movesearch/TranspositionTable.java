@@ -4,51 +4,154 @@
 package jenjinn.movesearch;
 
 /**
+ * A fixed size table of search results which may be shared by several
+ * searching threads without locking. The table is a flat array of longs
+ * grouped into buckets of four slots, each slot occupying two consecutive
+ * elements: the first is the position hash xored with the data, the second is
+ * the data itself which packs the score, depth, node type, search generation
+ * and notable move of the entry. A reader only accepts the data if xoring the
+ * two back together gives the hash it is looking for so an entry torn by two
+ * threads writing the same slot at once is simply treated as a miss.
+ *
+ * <pre>
+ * data bits | 63 - 32 | 31 - 26 | 25 - 24 | 23 - 16 | 15 - 0
+ *           | score   | age     | type    | depth   | move
+ * </pre>
+ *
+ * When a position is stored and its bucket is full the entry which is least
+ * valuable to keep is replaced, this is the one with the lowest depth after
+ * entries from older searches have been penalised.
+ *
  * @author ThomasB
  *
  */
 public final class TranspositionTable
 {
-	private final int size;
+	/** Returned by {@link #get(long)} when no entry for the position exists. */
+	static final long NO_ENTRY = 0L;
+
+	/** The move value stored when an entry has no notable move. */
+	static final int NO_MOVE = 0xFFFF;
+
+	private static final int BUCKET_SIZE = 4;
+	private static final int LONGS_PER_BUCKET = 2 * BUCKET_SIZE;
+	private static final int BYTES_PER_BUCKET = LONGS_PER_BUCKET * Long.BYTES;
+	private static final int AGE_MASK = 0b111111;
+	private static final int AGE_PENALTY = 8;
+	private static final TreeNodeType[] TYPES = TreeNodeType.values();
+
+	private final int bucketCount;
 	private final long indexer;
-	private final Entry[] table;
+	private final long[] table;
+
+	private volatile int generation = 0;
 
-	TranspositionTable(int twoPower)
+	/**
+	 * @param sizeInMegabytes
+	 *            Upper bound on the memory used by the table, the number of
+	 *            buckets is the largest power of two which fits inside it.
+	 */
+	TranspositionTable(int sizeInMegabytes)
 	{
-		if (twoPower < 0) {
-			throw new IllegalArgumentException();
+		if (sizeInMegabytes < 1) {
+			throw new IllegalArgumentException(Integer.toString(sizeInMegabytes));
 		}
-		this.size = 1 << twoPower;
-		this.indexer = size - 1;
-		this.table = new Entry[size];
+		long maxBuckets = ((long) sizeInMegabytes << 20) / BYTES_PER_BUCKET;
+		this.bucketCount = (int) Math.min(Long.highestOneBit(maxBuckets), 1 << 27);
+		this.indexer = bucketCount - 1;
+		this.table = new long[LONGS_PER_BUCKET * bucketCount];
 	}
 
-	Entry get(long positionHash)
+	/**
+	 * Marks the start of a new search, entries written during previous searches
+	 * become preferred candidates for replacement.
+	 */
+	void incrementGeneration()
 	{
-		return table[(int) (positionHash & indexer)];
+		generation = (generation + 1) & AGE_MASK;
 	}
 
-	void set(long positionHash, Entry newEntry)
+	/**
+	 * @return the packed data stored for the given position, or
+	 *         {@link #NO_ENTRY} if there is none.
+	 */
+	long get(long positionHash)
 	{
-		table[(int) (positionHash & indexer)] = newEntry;
+		int bucketStart = indexOf(positionHash);
+		for (int i = bucketStart; i < bucketStart + LONGS_PER_BUCKET; i += 2) {
+			long key = table[i], data = table[i + 1];
+			if ((key ^ data) == positionHash && data != NO_ENTRY) {
+				return data;
+			}
+		}
+		return NO_ENTRY;
 	}
 
-	public static class Entry
+	void set(long positionHash, TreeNodeType type, int score, int notableMove, int depthSearched)
 	{
-		long positionHash;
-		TreeNodeType type;
-		int score;
-		int notableMoveIndex;
-		int depthSearched;
-
-		boolean isPVEntry()
-		{
-			return type == TreeNodeType.PRINCIPLE_VALUE;
+		int currentGeneration = generation;
+		long data = pack(type, score, notableMove, depthSearched) | ((long) currentGeneration << 26);
+		int bucketStart = indexOf(positionHash);
+		int replaceIndex = -1, replaceWorth = Integer.MAX_VALUE;
+		for (int i = bucketStart; i < bucketStart + LONGS_PER_BUCKET; i += 2) {
+			long key = table[i], existing = table[i + 1];
+			if (existing == NO_ENTRY || (key ^ existing) == positionHash) {
+				replaceIndex = i;
+				break;
+			}
+			int age = (currentGeneration - ageOf(existing)) & AGE_MASK;
+			int worth = depthOf(existing) - AGE_PENALTY * age;
+			if (worth < replaceWorth) {
+				replaceIndex = i;
+				replaceWorth = worth;
+			}
 		}
+		table[replaceIndex] = positionHash ^ data;
+		table[replaceIndex + 1] = data;
+	}
 
-		boolean matches(long queryHash)
-		{
-			return positionHash == queryHash;
-		}
+	int getSlotCount()
+	{
+		return BUCKET_SIZE * bucketCount;
+	}
+
+	private int indexOf(long positionHash)
+	{
+		return (int) (positionHash & indexer) * LONGS_PER_BUCKET;
+	}
+
+	static long pack(TreeNodeType type, int score, int notableMove, int depthSearched)
+	{
+		assert 0 <= depthSearched && depthSearched < 256;
+		assert 0 <= notableMove && notableMove <= NO_MOVE;
+		return ((long) score << 32)
+				| ((long) (type.ordinal() + 1) << 24)
+				| (depthSearched << 16)
+				| notableMove;
+	}
+
+	static int scoreOf(long entry)
+	{
+		return (int) (entry >> 32);
+	}
+
+	static TreeNodeType typeOf(long entry)
+	{
+		return TYPES[(int) ((entry >>> 24) & 0b11) - 1];
+	}
+
+	static int depthOf(long entry)
+	{
+		return (int) ((entry >>> 16) & 0xFF);
+	}
+
+	static int ageOf(long entry)
+	{
+		return (int) ((entry >>> 26) & AGE_MASK);
+	}
+
+	static int notableMoveOf(long entry)
+	{
+		return (int) (entry & 0xFFFF);
 	}
 }
@@ -3,36 +3,97 @@
  */
 package jenjinn.movesearch;
 
-import static jenjinn.movesearch.IntConstants.INITIAL_ALPHA;
-import static jenjinn.movesearch.IntConstants.INITIAL_BETA;
-
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.ToLongFunction;
 
-import jenjinn.base.GameTermination;
 import jenjinn.boardstate.BoardState;
-import jenjinn.boardstate.MoveReversalData;
 import jenjinn.boardstate.calculators.LegalMoves;
 import jenjinn.boardstate.calculators.TerminationState;
 import jenjinn.moves.ChessMove;
-import jenjinn.movesearch.TranspositionTable.Entry;
 import jflow.iterators.factories.IterRange;
 import jflow.seq.Seq;
 
 /**
+ * Iterative deepening tree search which can optionally be spread over several
+ * threads using the 'Lazy SMP' scheme. The calling thread performs the main
+ * search and any additional helper threads, taken from a pool owned by the
+ * searcher, search their own copy of the root state, the only communication
+ * between them being the shared transposition table and the clock which stops
+ * them. Thread interruption plays no part in stopping a search. The searcher can
+ * also ponder, searching in the background on the opponent's time. The
+ * statistics of each search are passed to any registered
+ * {@link SearchListener}.
+ *
  * @author ThomasB
  */
 public final class TreeSearcher
 {
-	private final QuiescentSearcher quiescent = new QuiescentSearcher();
-	private final TranspositionTable table = new TranspositionTable(15);
+	private static final int DEFAULT_TABLE_SIZE_MB = 32;
+	private static final long KEEP_ALIVE_SECONDS = 60;
+
+	private final TranspositionTable table;
 	private final int maxDepth = 20;
 
-	private final Seq<MoveReversalData> moveReversers;
-	private int bestFirstMoveIndex = -1;
+	private final Seq<SearchWorker> workers;
+	/**
+	 * Finds the expected reply to ponder when the table has none, it is kept apart
+	 * from the workers so the shallow search leaves their statistics alone.
+	 */
+	private final SearchWorker replyWorker;
+	/** Runs the helper workers, null if there are none. */
+	private final ExecutorService helperPool;
+	/** Runs the main worker when pondering. */
+	private final ExecutorService ponderExecutor;
+
+	private final List<SearchListener> listeners = new CopyOnWriteArrayList<>();
+
+	private PonderSearch ponder = null;
+	private volatile SearchStatistics lastStatistics = null;
 
 	public TreeSearcher()
 	{
-		moveReversers = IterRange.to(maxDepth).mapToObject(i -> new MoveReversalData()).toSeq();
+		this(1);
+	}
+
+	/**
+	 * @param threadCount
+	 *            The total number of threads which will cooperate on each search,
+	 *            this includes the thread which calls the search methods.
+	 */
+	public TreeSearcher(int threadCount)
+	{
+		this(threadCount, DEFAULT_TABLE_SIZE_MB);
+	}
+
+	/**
+	 * @param threadCount
+	 *            The total number of threads which will cooperate on each search,
+	 *            this includes the thread which calls the search methods.
+	 * @param tableSizeInMegabytes
+	 *            The memory allowance of the transposition table shared by all the
+	 *            threads.
+	 */
+	public TreeSearcher(int threadCount, int tableSizeInMegabytes)
+	{
+		if (threadCount < 1) {
+			throw new IllegalArgumentException();
+		}
+		table = new TranspositionTable(tableSizeInMegabytes);
+		workers = IterRange.to(threadCount).mapToObject(i -> new SearchWorker(table, maxDepth)).toSeq();
+		replyWorker = new SearchWorker(table, 1);
+		helperPool = threadCount > 1 ? createPool(threadCount - 1, "search-helper") : null;
+		ponderExecutor = createPool(1, "ponder");
 	}
 
 	/**
@@ -46,194 +107,469 @@ public final class TreeSearcher
 	 * @param timeLimit
 	 *            The execution time limit (in milliseconds) for this method. When
 	 *            the time limit is reached the best move which has currently been
-	 *            calculated will be returned.
+	 *            calculated will be returned. The search may finish well before
+	 *            the limit if starting another iteration looks unlikely to change
+	 *            the result, see {@link SearchClock}.
 	 * @return Nothing if there are no legal moves, otherwise the 'best' move
 	 *         available.
 	 */
 	public synchronized Optional<ChessMove> getBestMoveFrom(BoardState root, long timeLimit)
+	{
+		if (ponder != null && ponder.stateHash == root.calculateHash()) {
+			// A ponder hit, the search carries on but now against the clock.
+			PonderSearch hit = ponder;
+			ponder = null;
+			hit.clock.startTimeLimit(timeLimit);
+			return bestMoveOf(await(hit.result));
+		}
+		stopPondering();
+		return bestMoveOf(search(root, maxDepth, SearchClock.withTimeLimit(timeLimit), 1));
+	}
+
+	/**
+	 * Calculates the 'best' move for the active side in the given state by
+	 * searching to a fixed depth with no time limit.
+	 *
+	 * @param root
+	 *            The state in which calculate the best move for the active side.
+	 * @param depthLimit
+	 *            The depth of the final iteration of the search.
+	 * @return Nothing if there are no legal moves, otherwise the 'best' move
+	 *         available.
+	 */
+	public synchronized Optional<ChessMove> getBestMoveToDepth(BoardState root, int depthLimit)
+	{
+		if (depthLimit < 1 || depthLimit > maxDepth) {
+			throw new IllegalArgumentException(Integer.toString(depthLimit));
+		}
+		stopPondering();
+		return bestMoveOf(search(root, depthLimit, SearchClock.unlimited(), 1));
+	}
+
+	/**
+	 * Searches the given state under a time limit as
+	 * {@link #getBestMoveFrom(BoardState, long)} does, but finds the scores and
+	 * principal variations of the best few moves rather than just the best move.
+	 *
+	 * @param root
+	 *            The state to analyse, it is left unchanged.
+	 * @param timeLimit
+	 *            The execution time limit (in milliseconds).
+	 * @param lineCount
+	 *            The number of root moves to find exact scores and lines for.
+	 *            Each one beyond the first slows the search down.
+	 * @return the best lines found by the last completed iteration, best first.
+	 *         There are fewer than the line count if there are fewer legal
+	 *         moves, none if the state is terminal.
+	 */
+	public synchronized List<SearchResult> analyse(BoardState root, long timeLimit, int lineCount)
+	{
+		checkLineCount(lineCount);
+		stopPondering();
+		return search(root, maxDepth, SearchClock.withTimeLimit(timeLimit), lineCount);
+	}
+
+	/**
+	 * Searches the given state to a fixed depth as
+	 * {@link #getBestMoveToDepth(BoardState, int)} does, but finds the scores and
+	 * principal variations of the best few moves rather than just the best move.
+	 *
+	 * @see #analyse(BoardState, long, int)
+	 */
+	public synchronized List<SearchResult> analyseToDepth(BoardState root, int depthLimit, int lineCount)
+	{
+		if (depthLimit < 1 || depthLimit > maxDepth) {
+			throw new IllegalArgumentException(Integer.toString(depthLimit));
+		}
+		checkLineCount(lineCount);
+		stopPondering();
+		return search(root, depthLimit, SearchClock.unlimited(), lineCount);
+	}
+
+	private static void checkLineCount(int lineCount)
+	{
+		if (lineCount < 1) {
+			throw new IllegalArgumentException(Integer.toString(lineCount));
+		}
+	}
+
+	private static Optional<ChessMove> bestMoveOf(List<SearchResult> results)
+	{
+		return results.isEmpty() ? Optional.empty() : Optional.of(results.get(0).getBestMove());
+	}
+
+	/**
+	 * Starts searching, in the background and with no time limit, the state
+	 * expected to arise once the opponent replies in the given state. The
+	 * expected reply is the move recommended by the table, or the result of a
+	 * shallow search if there is none. If the next call to
+	 * {@link #getBestMoveFrom(BoardState, long)} is made with the expected state
+	 * the ponder search continues under the time limit of that call, otherwise it
+	 * is stopped and a new search is started. Either way the table it has filled
+	 * is kept.
+	 *
+	 * @param state
+	 *            The state after the move of this searcher's side, with the
+	 *            opponent to move. It is not modified.
+	 * @return the expected reply which is being pondered, nothing if the state is
+	 *         terminal.
+	 */
+	public synchronized Optional<ChessMove> startPondering(BoardState state)
+	{
+		stopPondering();
+		Optional<ChessMove> reply = findExpectedReply(state);
+		if (reply.isPresent()) {
+			BoardState ponderState = state.copy();
+			reply.get().makeMove(ponderState);
+			PonderSearch newPonder = new PonderSearch(ponderState.calculateHash());
+			newPonder.result = ponderExecutor.submit(
+					() -> search(ponderState, maxDepth, newPonder.clock, 1, () -> newPonder.discarded));
+			ponder = newPonder;
+		}
+		return reply;
+	}
+
+	/**
+	 * Stops any ponder search, waiting until it has finished.
+	 */
+	public synchronized void stopPondering()
+	{
+		if (ponder != null) {
+			ponder.discarded = true;
+			ponder.clock.stop();
+			await(ponder.result);
+			ponder = null;
+		}
+	}
+
+	public synchronized boolean isPondering()
+	{
+		return ponder != null;
+	}
+
+	private Optional<ChessMove> findExpectedReply(BoardState state)
+	{
+		long tableEntry = table.get(state.calculateHash());
+		if (tableEntry != TranspositionTable.NO_ENTRY) {
+			int notableMove = TranspositionTable.notableMoveOf(tableEntry);
+			if (notableMove != TranspositionTable.NO_MOVE) {
+				ChessMove candidate = ChessMove.decode(notableMove);
+				if (LegalMoves.isLegal(state, candidate)) {
+					return Optional.of(candidate);
+				}
+			}
+		}
+		if (TerminationState.of(state, LegalMoves.getAllMoves(state).nextOption().isPresent()).isTerminal()) {
+			return Optional.empty();
+		}
+		// Not a new search, the table generation and the worker statistics are kept.
+		replyWorker.prepareForNewSearch();
+		try {
+			return Optional.of(replyWorker.getBestMoveFrom(state, 1, SearchClock.unlimited()));
+		} catch (SearchAbortedException ex) {
+			throw new AssertionError("An unlimited search cannot be aborted.");
+		}
+	}
+
+	private List<SearchResult> search(BoardState root, int depthLimit, SearchClock clock, int lineCount)
+	{
+		return search(root, depthLimit, clock, lineCount, () -> false);
+	}
+
+	/**
+	 * @param lineCount
+	 *            The number of lines the main thread finds exact scores for.
+	 * @param discarded
+	 *            Whether the results are to be thrown away, asked once the search
+	 *            has stopped. The statistics of a discarded search are neither
+	 *            recorded nor passed to the listeners.
+	 * @return the lines found by the last iteration the main thread completed,
+	 *         best first, none if the root is terminal.
+	 */
+	private List<SearchResult> search(BoardState root, int depthLimit, SearchClock clock, int lineCount,
+			BooleanSupplier discarded)
 	{
 		Optional<ChessMove> legalMoves = LegalMoves.getAllMoves(root).nextOption();
 		if (TerminationState.of(root, legalMoves.isPresent()).isTerminal()) {
-			return Optional.empty();
+			return Collections.emptyList();
 		}
-		bestFirstMoveIndex = -1;
+		table.incrementGeneration();
+		workers.forEach(SearchWorker::prepareForNewSearch);
+		SearchWorker mainWorker = workers.head();
+		mainWorker.setLineCount(lineCount);
+		boolean notifyIterations = !listeners.isEmpty();
+		long searchStart = System.nanoTime();
 
 		ChessMove bestMove;
 		try {
-			bestMove = getBestMoveFrom(root, 1);
-		} catch (InterruptedException ex) {
-			throw new AssertionError("Interruption not possible here.");
+			// The first iteration always completes so there is a move to return.
+			bestMove = mainWorker.getBestMoveFrom(root, 1, SearchClock.unlimited());
+		} catch (SearchAbortedException ex) {
+			throw new AssertionError("An unlimited search cannot be aborted.");
+		}
+		int depthReached = 1;
+		List<SearchResult> results = mainWorker.getResults(root, depthReached);
+		long iterationTime = System.nanoTime() - searchStart;
+		if (notifyIterations) {
+			SearchStatistics statistics = collectStatistics(depthReached, iterationTime, searchStart);
+			listeners.forEach(listener -> listener.iterationCompleted(statistics));
 		}
 
-		createInterruptingTimerThread(timeLimit).start();
-
-		for (int targetDepth = 2; targetDepth <= maxDepth; targetDepth++) {
+		List<Future<?>> helpers = startHelpers(root, depthLimit, clock);
+		int stableIterations = 0;
+		for (int targetDepth = 2; targetDepth <= depthLimit && clock.canStartIteration(stableIterations); targetDepth++) {
+			long iterationStart = System.nanoTime();
 			try {
-				ChessMove newBestMove = getBestMoveFrom(root, targetDepth);
+				ChessMove newBestMove = mainWorker.getBestMoveFrom(root, targetDepth, clock);
+				stableIterations = newBestMove.equals(bestMove) ? stableIterations + 1 : 0;
 				bestMove = newBestMove;
-			} catch (InterruptedException e) {
-				Thread.interrupted();
-				moveReversers.forEach(x -> x.reset());
-				quiescent.resetMoveReversalData();
+			} catch (SearchAbortedException e) {
+				mainWorker.resetMoveReversalData();
 				break;
 			}
+			depthReached = targetDepth;
+			results = mainWorker.getResults(root, depthReached);
+			iterationTime = System.nanoTime() - iterationStart;
+			if (notifyIterations) {
+				// The helpers are still running so their counts are only approximate.
+				SearchStatistics statistics = collectStatistics(depthReached, iterationTime, searchStart);
+				listeners.forEach(listener -> listener.iterationCompleted(statistics));
+			}
 		}
-		return Optional.of(bestMove);
+		clock.stop();
+		awaitHelpers(helpers);
+		if (!discarded.getAsBoolean()) {
+			SearchStatistics statistics = collectStatistics(depthReached, iterationTime, searchStart);
+			lastStatistics = statistics;
+			listeners.forEach(listener -> listener.searchCompleted(statistics));
+		}
+		return results;
 	}
 
-	private Thread createInterruptingTimerThread(long timeLimit)
+	private SearchStatistics collectStatistics(int depthReached, long iterationNanos, long searchStartNanos)
 	{
-		Thread toInterrupt = Thread.currentThread();
-		return new Thread(() -> {
-			try {
-				Thread.sleep(timeLimit);
-				if (toInterrupt.isAlive()) {
-					toInterrupt.interrupt();
-				}
-			} catch (InterruptedException e) {
-				throw new AssertionError("Interruption not possible here.");
+		long[] cutoffsByMoveIndex = new long[SearchStatistics.CUTOFF_INDEX_BUCKETS];
+		for (SearchWorker worker : workers) {
+			long[] workerCutoffs = worker.getCutoffsByMoveIndex();
+			for (int i = 0; i < cutoffsByMoveIndex.length; i++) {
+				cutoffsByMoveIndex[i] += workerCutoffs[i];
 			}
-		});
+		}
+		return new SearchStatistics(
+				depthReached,
+				workers.flow().mapToInt(SearchWorker::getSelectiveDepth).max(0),
+				sum(SearchWorker::getNodeCount) - sum(SearchWorker::getQuiescentNodeCount),
+				sum(SearchWorker::getQuiescentNodeCount),
+				sum(SearchWorker::getTableProbes),
+				sum(SearchWorker::getTableHits),
+				sum(SearchWorker::getTableCutoffs),
+				sum(SearchWorker::getQuiescentTableProbes),
+				sum(SearchWorker::getQuiescentTableHits),
+				sum(SearchWorker::getQuiescentTableCutoffs),
+				cutoffsByMoveIndex,
+				TimeUnit.NANOSECONDS.toMillis(iterationNanos),
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - searchStartNanos));
 	}
 
-	private ChessMove getBestMoveFrom(BoardState root, int depth) throws InterruptedException
+	private long sum(ToLongFunction<SearchWorker> count)
 	{
-		Seq<ChessMove> legalMoves = LegalMoves.getAllMoves(root).toSeq();
-		int[] indices = IterRange.to(legalMoves.size()).toArray();
-		changeFirstIndex(indices, bestFirstMoveIndex);
-
-		int alpha = INITIAL_ALPHA;
-		for (int index : indices) {
-			ChessMove mv = legalMoves.get(index);
-			MoveReversalData reversalData = moveReversers.get(depth);
-			mv.makeMove(root, reversalData);
-			int bestReply = -negamax(root, -INITIAL_BETA, -alpha, depth - 1);
-			mv.reverseMove(root, reversalData);
-			if (bestReply > alpha) {
-				alpha = bestReply;
-				bestFirstMoveIndex = index;
-			}
-		}
-		// System.out.println(alpha);
-		return legalMoves.get(bestFirstMoveIndex);
+		return workers.flow().mapToLong(count).fold(0L, (a, b) -> a + b);
 	}
 
-	private int negamax(BoardState root, int alpha, int beta, int depth) throws InterruptedException
+	/**
+	 * Submits a search to the pool for each helper worker. Half the helpers start
+	 * one ply deeper than the main thread so that the threads tend to diverge and
+	 * fill the table with different parts of the tree.
+	 */
+	private List<Future<?>> startHelpers(BoardState root, int depthLimit, SearchClock clock)
 	{
-		if (Thread.currentThread().isInterrupted()) {
-			throw new InterruptedException();
+		List<Future<?>> helpers = new ArrayList<>(workers.size() - 1);
+		for (int i = 1; i < workers.size(); i++) {
+			SearchWorker helper = workers.get(i);
+			BoardState rootCopy = root.copy();
+			int startDepth = 2 + (i % 2);
+			helpers.add(helperPool.submit(() -> helper.searchUntilStopped(rootCopy, startDepth, depthLimit, clock)));
 		}
+		return helpers;
+	}
 
-		Optional<ChessMove> firstMove = LegalMoves.getAllMoves(root).nextOption();
-		GameTermination termination = TerminationState.of(root, firstMove.isPresent());
-		if (termination.isTerminal()) {
-			return -Math.abs(termination.value);
-		} else if (depth == 0) {
-			return quiescent.search(root);
-		}
+	/**
+	 * Waits for the helpers, which stop once the clock has been stopped.
+	 */
+	private void awaitHelpers(List<Future<?>> helpers)
+	{
+		helpers.forEach(TreeSearcher::await);
+	}
 
-		long rootHash = root.calculateHash();
-		Entry tableEntry = table.get(rootHash);
-		int recommendedFirstMoveIndex = -1;
-		if (tableEntry != null && tableEntry.matches(rootHash)) {
-			if (tableEntry.depthSearched >= depth) {
-				switch (tableEntry.type) {
-				case PRINCIPLE_VALUE:
-					return tableEntry.score;
-				case CUT:
-					alpha = Math.max(alpha, tableEntry.score);
-					break;
-				case ALL:
-					beta = Math.min(beta, tableEntry.score);
-					break;
-				}
-				if (alpha >= beta) {
-					return beta;
+	/**
+	 * Waits for a search running on another thread. The interrupted status of the
+	 * calling thread is preserved but does not cut the wait short since the
+	 * search must be finished before the next one starts.
+	 */
+	private static <T> T await(Future<T> search)
+	{
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					return search.get();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				} catch (ExecutionException e) {
+					throw new IllegalStateException("Background search failed", e.getCause());
 				}
 			}
-			recommendedFirstMoveIndex = tableEntry.notableMoveIndex;
-		}
-
-		Seq<ChessMove> legalMoves = LegalMoves.getAllMoves(root).toSeq();
-		int[] moveIndices = IterRange.to(legalMoves.size()).toArray();
-		changeFirstIndex(moveIndices, recommendedFirstMoveIndex);
-
-		int bestValue = -IntConstants.MAX_NEGATABLE_VALUE;
-		int bestMoveIndex = -1, refutationMoveIndex = -1;
-		for (int i : moveIndices) {
-			ChessMove mv = legalMoves.get(i);
-			MoveReversalData reverser = moveReversers.get(depth);
-			mv.makeMove(root, reverser);
-			int bestReply = -negamax(root, -beta, -alpha, depth - 1);
-			mv.reverseMove(root, reverser);
-			bestMoveIndex = bestReply > alpha ? i : bestMoveIndex;
-			alpha = Math.max(alpha, bestReply);
-			bestValue = Math.max(bestValue, bestReply);
-			if (alpha >= beta) {
-				refutationMoveIndex = i;
-				break;
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
 			}
 		}
-		if (bestValue <= alpha) {
-			updateEntryToNewAllEntry(tableEntry, rootHash, bestValue, depth);
-		} else if (bestValue >= beta) {
-			updateEntryToNewCutEntry(tableEntry, rootHash, bestValue, refutationMoveIndex, depth);
-		} else {
-			updateEntryToNewPVEntry(tableEntry, rootHash, bestValue, bestMoveIndex, depth);
-		}
-		return Math.min(beta, Math.max(alpha, bestValue));
 	}
 
-	private void updateEntryToNewAllEntry(Entry currentEntry, long newHash, int bestValue, int depth)
+	private static ExecutorService createPool(int threadCount, String threadName)
 	{
-		if (currentEntry == null) {
-			currentEntry = new Entry();
-			table.set(newHash, currentEntry);
-		}
-		currentEntry.positionHash = newHash;
-		currentEntry.score = bestValue;
-		currentEntry.depthSearched = depth;
-		currentEntry.type = TreeNodeType.ALL;
+		// Idle threads time out so discarded searchers do not keep threads alive.
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(threadCount, threadCount, KEEP_ALIVE_SECONDS,
+				TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+					Thread thread = new Thread(runnable, threadName);
+					thread.setDaemon(true);
+					return thread;
+				});
+		pool.allowCoreThreadTimeOut(true);
+		return pool;
 	}
 
-	private void updateEntryToNewCutEntry(Entry currentEntry, long newHash, int bestValue, int refutationMoveIndex,
-			int depth)
+	/**
+	 * A search running in the background on the state expected after the
+	 * opponent's reply.
+	 */
+	private static final class PonderSearch
 	{
-		if (currentEntry == null) {
-			currentEntry = new Entry();
-			table.set(newHash, currentEntry);
+		final long stateHash;
+		final SearchClock clock = SearchClock.unlimited();
+		Future<List<SearchResult>> result;
+		/** Set when the opponent's reply was not the expected one. */
+		volatile boolean discarded = false;
+
+		PonderSearch(long stateHash)
+		{
+			this.stateHash = stateHash;
 		}
-		currentEntry.positionHash = newHash;
-		currentEntry.score = bestValue;
-		currentEntry.depthSearched = depth;
-		currentEntry.notableMoveIndex = refutationMoveIndex;
-		currentEntry.type = TreeNodeType.CUT;
 	}
 
-	private void updateEntryToNewPVEntry(Entry currentEntry, long newHash, int bestValue, int bestMoveIndex, int depth)
+	/**
+	 * Enables or disables null move pruning in subsequent searches, it is enabled
+	 * by default.
+	 */
+	public synchronized void setNullMovePruning(boolean enabled)
 	{
-		if (currentEntry == null) {
-			currentEntry = new Entry();
-			table.set(newHash, currentEntry);
-		}
-		currentEntry.positionHash = newHash;
-		currentEntry.score = bestValue;
-		currentEntry.depthSearched = depth;
-		currentEntry.notableMoveIndex = bestMoveIndex;
-		currentEntry.type = TreeNodeType.PRINCIPLE_VALUE;
+		stopPondering();
+		workers.forEach(worker -> worker.setNullMovePruning(enabled));
+		replyWorker.setNullMovePruning(enabled);
 	}
 
-	private void changeFirstIndex(int[] indices, int recommendedMoveIndex)
+	/**
+	 * Enables or disables the reduced depth search of quiet moves ordered late at
+	 * each node in subsequent searches, it is enabled by default.
+	 */
+	public synchronized void setLateMoveReductions(boolean enabled)
 	{
-		if (recommendedMoveIndex > -1) {
-			int tmp = indices[0];
-			indices[0] = indices[recommendedMoveIndex];
-			indices[recommendedMoveIndex] = tmp;
-		}
+		stopPondering();
+		workers.forEach(worker -> worker.setLateMoveReductions(enabled));
+		replyWorker.setLateMoveReductions(enabled);
+	}
+
+	/**
+	 * Enables or disables probing and storing quiescent nodes in the
+	 * transposition table in subsequent searches, it is enabled by default.
+	 */
+	public synchronized void setQuiescentHashing(boolean enabled)
+	{
+		stopPondering();
+		workers.forEach(worker -> worker.setQuiescentHashing(enabled));
+		replyWorker.setQuiescentHashing(enabled);
+	}
+
+	/**
+	 * Enables or disables the lazy evaluation of quiescent stand-pats in
+	 * subsequent searches, it is enabled by default.
+	 */
+	public synchronized void setLazyEvaluation(boolean enabled)
+	{
+		stopPondering();
+		workers.forEach(worker -> worker.setLazyEvaluation(enabled));
+		replyWorker.setLazyEvaluation(enabled);
+	}
+
+	/**
+	 * Registers a listener to be passed the statistics of subsequent searches,
+	 * including ponder searches. A ponder search stopped because the opponent
+	 * replied differently is discarded and does not complete.
+	 */
+	public void addSearchListener(SearchListener listener)
+	{
+		listeners.add(listener);
+	}
+
+	public void removeSearchListener(SearchListener listener)
+	{
+		listeners.remove(listener);
+	}
+
+	/**
+	 * @return the statistics of the most recently completed search, whether or
+	 *         not any listeners are registered. Nothing if no search has completed.
+	 */
+	public Optional<SearchStatistics> getLastSearchStatistics()
+	{
+		return Optional.ofNullable(lastStatistics);
+	}
+
+	/**
+	 * @return the total number of nodes visited by all threads during the most
+	 *         recent search.
+	 */
+	public long getNodeCount()
+	{
+		return sum(SearchWorker::getNodeCount);
+	}
+
+	/**
+	 * @return the total number of beta cutoffs in the main search of all threads
+	 *         during the most recent search, excluding null move cutoffs.
+	 */
+	public long getCutoffCount()
+	{
+		return sum(SearchWorker::getCutoffCount);
+	}
+
+	/**
+	 * @return how many of the cutoffs counted by {@link #getCutoffCount()} were
+	 *         caused by the first move searched at their node.
+	 */
+	public long getFirstMoveCutoffCount()
+	{
+		return sum(SearchWorker::getFirstMoveCutoffCount);
+	}
+
+	/**
+	 * @return the proportion of the cutoffs in the most recent search caused by
+	 *         the first move searched, a measure of the quality of the move
+	 *         ordering.
+	 */
+	public double getFirstMoveCutoffRate()
+	{
+		long cutoffs = getCutoffCount();
+		return cutoffs == 0 ? 0 : getFirstMoveCutoffCount() / (double) cutoffs;
+	}
+
+	public int getThreadCount()
+	{
+		return workers.size();
 	}
 
 	public QuiescentSearcher getQuiescent()
 	{
-		return quiescent;
+		return workers.head().getQuiescent();
 	}
 }
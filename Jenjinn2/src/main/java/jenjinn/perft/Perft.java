@@ -0,0 +1,230 @@
+/**
+ *
+ */
+package jenjinn.perft;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import jenjinn.boardstate.BoardState;
+import jenjinn.boardstate.FenParser;
+import jenjinn.boardstate.MoveReversalData;
+import jenjinn.boardstate.calculators.LegalMoves;
+import jenjinn.boardstate.calculators.MoveGenerator;
+import jenjinn.moves.ChessMove;
+import jflow.iterators.factories.IterRange;
+import jflow.seq.Seq;
+
+/**
+ * Counts the leaf nodes of the tree of legal moves to a fixed depth from some
+ * position ('perft'). Comparing the counts with published results validates
+ * move generation along with making and reversing moves, and timing the count
+ * measures their combined throughput.
+ *
+ * @author ThomasB
+ */
+public final class Perft
+{
+	/**
+	 * The move generation implementations which can be exercised.
+	 */
+	public enum Generator
+	{
+		/** Generation via {@link LegalMoves#getAllMoves(BoardState)}. */
+		LEGAL_MOVES,
+
+		/** Generation via a {@link MoveGenerator} into move buffers. */
+		MOVE_GENERATOR;
+	}
+
+	public static final int MAX_DEPTH = 15;
+
+	private final Generator generator;
+	private final boolean bulkCounting;
+	private final Seq<MoveReversalData> moveReversers;
+	private final Seq<MoveGenerator> moveGenerators;
+	private final int[][] moveBuffers;
+
+	/**
+	 * @param generator
+	 *            The move generation implementation to count with.
+	 * @param bulkCounting
+	 *            If true the moves available one ply above the leaves are counted
+	 *            rather than made and reversed.
+	 */
+	public Perft(Generator generator, boolean bulkCounting)
+	{
+		this.generator = generator;
+		this.bulkCounting = bulkCounting;
+		this.moveReversers = IterRange.to(MAX_DEPTH + 1).mapToObject(i -> new MoveReversalData()).toSeq();
+		this.moveGenerators = IterRange.to(MAX_DEPTH + 1).mapToObject(i -> new MoveGenerator()).toSeq();
+		this.moveBuffers = new int[MAX_DEPTH + 1][MoveGenerator.MAX_MOVES];
+	}
+
+	/**
+	 * @return the number of leaf nodes at the given depth below the state. The
+	 *         state is returned to its original condition.
+	 */
+	public long count(BoardState state, int depth)
+	{
+		checkDepth(depth);
+		return generator == Generator.LEGAL_MOVES ? countWithLegalMoves(state, depth) : countWithGenerator(state, depth);
+	}
+
+	/**
+	 * @return the number of leaf nodes at the given depth below the state split
+	 *         by the first move made, in the order the moves were generated.
+	 */
+	public Map<ChessMove, Long> divide(BoardState state, int depth)
+	{
+		checkDepth(depth);
+		if (depth < 1) {
+			throw new IllegalArgumentException(Integer.toString(depth));
+		}
+		Map<ChessMove, Long> division = new LinkedHashMap<>();
+		MoveReversalData reverser = moveReversers.get(depth);
+		for (ChessMove move : generateRootMoves(state, depth)) {
+			move.makeMove(state, reverser);
+			division.put(move, count(state, depth - 1));
+			move.reverseMove(state, reverser);
+		}
+		return division;
+	}
+
+	/**
+	 * @return the moves from the state generated by the selected generator, so
+	 *         that a division can localise a bug in either.
+	 */
+	private Seq<ChessMove> generateRootMoves(BoardState state, int depth)
+	{
+		if (generator == Generator.LEGAL_MOVES) {
+			return LegalMoves.getAllMoves(state).toSeq();
+		}
+		MoveGenerator moveGenerator = moveGenerators.get(depth);
+		int[] moves = moveBuffers[depth];
+		moveGenerator.initialise(state);
+		int end = moveGenerator.generateQuiets(moves, moveGenerator.generateCaptures(moves, 0));
+		return IterRange.to(end).mapToObject(i -> ChessMove.decode(moves[i])).toSeq();
+	}
+
+	private void checkDepth(int depth)
+	{
+		if (depth < 0 || depth > MAX_DEPTH) {
+			throw new IllegalArgumentException(Integer.toString(depth));
+		}
+	}
+
+	private long countWithLegalMoves(BoardState state, int depth)
+	{
+		if (depth == 0) {
+			return 1;
+		}
+		Seq<ChessMove> moves = LegalMoves.getAllMoves(state).toSeq();
+		if (bulkCounting && depth == 1) {
+			return moves.size();
+		}
+		long leafCount = 0;
+		MoveReversalData reverser = moveReversers.get(depth);
+		for (ChessMove move : moves) {
+			move.makeMove(state, reverser);
+			leafCount += countWithLegalMoves(state, depth - 1);
+			move.reverseMove(state, reverser);
+		}
+		return leafCount;
+	}
+
+	private long countWithGenerator(BoardState state, int depth)
+	{
+		if (depth == 0) {
+			return 1;
+		}
+		MoveGenerator moveGenerator = moveGenerators.get(depth);
+		int[] moves = moveBuffers[depth];
+		moveGenerator.initialise(state);
+		int end = moveGenerator.generateQuiets(moves, moveGenerator.generateCaptures(moves, 0));
+		if (bulkCounting && depth == 1) {
+			return end;
+		}
+		long leafCount = 0;
+		MoveReversalData reverser = moveReversers.get(depth);
+		for (int i = 0; i < end; i++) {
+			ChessMove move = ChessMove.decode(moves[i]);
+			move.makeMove(state, reverser);
+			leafCount += countWithGenerator(state, depth - 1);
+			move.reverseMove(state, reverser);
+		}
+		return leafCount;
+	}
+
+	/**
+	 * Command line entry point, the arguments are either
+	 *
+	 * <pre>
+	 * suite [max depth] [options]
+	 * [fen | startpos] [depth] [options]
+	 * </pre>
+	 *
+	 * where the options are any of '--divide', '--no-bulk' and
+	 * '--generator=[legalmoves | movegenerator]'. The first form runs the
+	 * standard position suite checking the counts against their known values.
+	 * The fen must be quoted or have its spaces replaced by underscores.
+	 */
+	public static void main(String[] args)
+	{
+		if (args.length < 2) {
+			System.out.println("Usage: (suite | startpos | \"<fen>\") <depth> [--divide] [--no-bulk] [--generator=(legalmoves|movegenerator)]");
+			System.exit(1);
+		}
+		Seq<String> options = Seq.of(args).drop(2);
+		boolean divide = options.flow().anyMatch("--divide"::equals);
+		boolean bulkCounting = options.flow().noneMatch("--no-bulk"::equals);
+		Generator generator = options.flow().anyMatch("--generator=movegenerator"::equals)
+				? Generator.MOVE_GENERATOR
+				: Generator.LEGAL_MOVES;
+		Perft perft = new Perft(generator, bulkCounting);
+		int depth = Integer.parseInt(args[1]);
+
+		if (args[0].equals("suite")) {
+			boolean allPassed = true;
+			for (PerftPosition position : PerftPosition.loadStandardSuite()) {
+				System.out.println(position.getFen());
+				for (int d = 1; d <= Math.min(depth, position.getMaxKnownDepth()); d++) {
+					allPassed &= perft.report(position.createState(), d, position.getExpectedCount(d));
+				}
+			}
+			System.out.println(allPassed ? "All counts correct." : "INCORRECT COUNTS FOUND.");
+			System.exit(allPassed ? 0 : 2);
+		} else {
+			String fen = args[0].equals("startpos") ? PerftPosition.START_FEN : args[0].replace('_', ' ');
+			BoardState state = FenParser.parse(fen);
+			if (divide) {
+				long total = 0;
+				for (Map.Entry<ChessMove, Long> entry : perft.divide(state, depth).entrySet()) {
+					System.out.println(entry.getKey().toCompactString() + ": " + entry.getValue());
+					total += entry.getValue();
+				}
+				System.out.println("Total: " + total);
+			} else {
+				perft.report(state, depth, -1);
+			}
+		}
+	}
+
+	/**
+	 * Counts and prints the result along with the nodes per second.
+	 *
+	 * @return false if the expected count is non-negative and differs from the
+	 *         actual count.
+	 */
+	private boolean report(BoardState state, int depth, long expectedCount)
+	{
+		long start = System.nanoTime();
+		long leafCount = count(state, depth);
+		long elapsedNanos = Math.max(1, System.nanoTime() - start);
+		boolean correct = expectedCount < 0 || expectedCount == leafCount;
+		System.out.println(String.format("  depth %2d: %,14d nodes %10.1f ms %,12d nps%s", depth, leafCount,
+				elapsedNanos / 1e6, (long) (leafCount * 1e9 / elapsedNanos),
+				correct ? "" : String.format("  expected %,d", expectedCount)));
+		return correct;
+	}
+}
@@ -0,0 +1,80 @@
+/**
+ *
+ */
+package jenjinn.perft;
+
+import jenjinn.base.FileUtils;
+import jenjinn.boardstate.BoardState;
+import jenjinn.boardstate.FenParser;
+import jflow.iterators.misc.Strings;
+import jflow.seq.Seq;
+
+/**
+ * A position together with its known perft results. A suite file holds one
+ * position per line in the form
+ *
+ * <pre>
+ * [fen] ;D1 [count] ;D2 [count] ...
+ * </pre>
+ *
+ * @author ThomasB
+ */
+public final class PerftPosition
+{
+	public static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+	private final String fen;
+	private final Seq<Long> expectedCounts;
+
+	public PerftPosition(String fen, Seq<Long> expectedCounts)
+	{
+		this.fen = fen;
+		this.expectedCounts = expectedCounts;
+	}
+
+	/**
+	 * @return the standard positions from the chess programming community used
+	 *         to validate move generators, they cover castling, enpassant,
+	 *         promotion and discovered check edge cases.
+	 */
+	public static Seq<PerftPosition> loadStandardSuite()
+	{
+		return FileUtils.cacheResource(PerftPosition.class, "perftsuite")
+				.map(PerftPosition::parse);
+	}
+
+	static PerftPosition parse(String suiteLine)
+	{
+		Seq<String> fields = Seq.of(suiteLine.split(";")).map(String::trim);
+		Seq<Long> counts = fields.drop(1).map(field -> {
+			if (!field.matches("^D[0-9]+ +[0-9]+$")) {
+				throw new IllegalArgumentException(suiteLine);
+			}
+			return Long.parseLong(Strings.lastMatch(field, "[0-9]+").get());
+		});
+		return new PerftPosition(fields.head(), counts);
+	}
+
+	public String getFen()
+	{
+		return fen;
+	}
+
+	public BoardState createState()
+	{
+		return FenParser.parse(fen);
+	}
+
+	public int getMaxKnownDepth()
+	{
+		return expectedCounts.size();
+	}
+
+	/**
+	 * @return the number of leaf nodes at the given depth, starting from one.
+	 */
+	public long getExpectedCount(int depth)
+	{
+		return expectedCounts.get(depth - 1);
+	}
+}
@@ -50,6 +50,6 @@ public final class ChessPieces
 
 	public static Piece fromIndex(int index)
 	{
-		return Piece.values()[index];
+		return ALL.get(index);
 	}
 }
@@ -84,14 +84,7 @@ public enum Piece implements Moveable
 		@Override
 		public long getSquaresOfControl(Square currentLocation, long whitePieces, long blackPieces)
 		{
-			int magicIndex = getMagicMoveIndex(
-					whitePieces | blackPieces,
-					Bitboards.bishopOccupancyMaskAt(currentLocation),
-					Bitboards.bishopMagicNumberAt(currentLocation),
-					Bitboards.bishopMagicBitshiftAt(currentLocation)
-					);
-
-			return Bitboards.bishopMagicMove(currentLocation, magicIndex);
+			return Bitboards.bishopControl(currentLocation, whitePieces | blackPieces);
 		}
 	},
 
@@ -112,14 +105,7 @@ public enum Piece implements Moveable
 		@Override
 		public long getSquaresOfControl(Square currentLocation, long whitePieces, long blackPieces)
 		{
-			int magicIndex = getMagicMoveIndex(
-					whitePieces | blackPieces,
-					Bitboards.rookOccupancyMaskAt(currentLocation),
-					Bitboards.rookMagicNumberAt(currentLocation),
-					Bitboards.rookMagicBitshiftAt(currentLocation)
-					);
-
-			return Bitboards.rookMagicMove(currentLocation, magicIndex);
+			return Bitboards.rookControl(currentLocation, whitePieces | blackPieces);
 		}
 	},
 
@@ -140,8 +126,8 @@ public enum Piece implements Moveable
 		@Override
 		public long getSquaresOfControl(Square currentLocation, long whitePieces, long blackPieces)
 		{
-			return WHITE_BISHOP.getSquaresOfControl(currentLocation, whitePieces, blackPieces)
-					| WHITE_ROOK.getSquaresOfControl(currentLocation, whitePieces, blackPieces);
+			long occupied = whitePieces | blackPieces;
+			return Bitboards.bishopControl(currentLocation, occupied) | Bitboards.rookControl(currentLocation, occupied);
 		}
 	},
 
@@ -237,14 +223,7 @@ public enum Piece implements Moveable
 		@Override
 		public long getSquaresOfControl(Square currentLocation, long whitePieces, long blackPieces)
 		{
-			int magicIndex = getMagicMoveIndex(
-					whitePieces | blackPieces,
-					Bitboards.bishopOccupancyMaskAt(currentLocation),
-					Bitboards.bishopMagicNumberAt(currentLocation),
-					Bitboards.bishopMagicBitshiftAt(currentLocation)
-					);
-
-			return Bitboards.bishopMagicMove(currentLocation, magicIndex);
+			return Bitboards.bishopControl(currentLocation, whitePieces | blackPieces);
 		}
 	},
 
@@ -265,14 +244,7 @@ public enum Piece implements Moveable
 		@Override
 		public long getSquaresOfControl(Square currentLocation, long whitePieces, long blackPieces)
 		{
-			int magicIndex = getMagicMoveIndex(
-					whitePieces | blackPieces,
-					Bitboards.rookOccupancyMaskAt(currentLocation),
-					Bitboards.rookMagicNumberAt(currentLocation),
-					Bitboards.rookMagicBitshiftAt(currentLocation)
-					);
-
-			return Bitboards.rookMagicMove(currentLocation, magicIndex);
+			return Bitboards.rookControl(currentLocation, whitePieces | blackPieces);
 		}
 	},
 
@@ -293,8 +265,8 @@ public enum Piece implements Moveable
 		@Override
 		public long getSquaresOfControl(Square currentLocation, long whitePieces, long blackPieces)
 		{
-			return BLACK_BISHOP.getSquaresOfControl(currentLocation, whitePieces, blackPieces)
-					| BLACK_ROOK.getSquaresOfControl(currentLocation, whitePieces, blackPieces);
+			long occupied = whitePieces | blackPieces;
+			return Bitboards.bishopControl(currentLocation, occupied) | Bitboards.rookControl(currentLocation, occupied);
 		}
 	},
 
@@ -349,9 +321,4 @@ public enum Piece implements Moveable
 		int index = ordinal() % 6;
 		return index == 2 || index == 3 || index == 4;
 	}
-
-	private static int getMagicMoveIndex(long allPieces, long occupancyMask, long magicNumber, int magicBitshift)
-	{
-		return (int) (((occupancyMask & allPieces) * magicNumber) >>> magicBitshift);
-	}
 }
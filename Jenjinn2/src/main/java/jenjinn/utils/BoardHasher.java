@@ -3,16 +3,16 @@
  */
 package jenjinn.utils;
 
+import static jenjinn.bitboards.BitboardUtils.lowestSquare;
+
 import java.util.Random;
 
 import jenjinn.base.CastleZone;
 import jenjinn.base.Side;
 import jenjinn.base.Square;
 import jenjinn.boardstate.CastlingStatus;
-import jenjinn.boardstate.LocationTracker;
 import jenjinn.pieces.ChessPieces;
 import jenjinn.pieces.Piece;
-import jflow.iterators.factories.Iter;
 import jflow.iterators.factories.IterRange;
 import jflow.seq.Seq;
 
@@ -26,6 +26,8 @@ public enum BoardHasher
 
 	private final Seq<long[]> boardSquareFeatures;
 	private final long[] castleRightsFeatures;
+	/** The combined features of each mask of castling rights. */
+	private final long[] castleRightsMaskFeatures;
 	private final long[] enpassantFileFeatures;
 	private final long blackToMoveFeature;
 
@@ -37,6 +39,12 @@ public enum BoardHasher
 		final Random numberGenerator = new Random(seed);
 		boardSquareFeatures = Square.ALL.map(x -> randomArray(12, numberGenerator));
 		castleRightsFeatures = randomArray(4, numberGenerator);
+		castleRightsMaskFeatures = new long[1 << castleRightsFeatures.length];
+		for (int mask = 0; mask < castleRightsMaskFeatures.length; mask++) {
+			for (CastleZone zone : CastleZone.ALL) {
+				castleRightsMaskFeatures[mask] ^= (mask & zone.mask) == 0 ? 0L : castleRightsFeatures[zone.ordinal()];
+			}
+		}
 		enpassantFileFeatures = randomArray(8, numberGenerator);
 		blackToMoveFeature = numberGenerator.nextLong();
 	}
@@ -62,6 +70,15 @@ public enum BoardHasher
 		return castleRightsFeatures[zone.ordinal()];
 	}
 
+	/**
+	 * @return the combination of the features of each of the castling rights in
+	 *         the given mask.
+	 */
+	public long getCastleRightsFeatures(int rightsMask)
+	{
+		return castleRightsMaskFeatures[rightsMask];
+	}
+
 	public long getEnpassantFileFeature(Square enPassantSquare)
 	{
 		return enpassantFileFeatures[enPassantSquare.ordinal() % 8];
@@ -72,16 +89,16 @@ public enum BoardHasher
 		return blackToMoveFeature;
 	}
 
-	public long hashPieceLocations(Seq<LocationTracker> pieceLocations)
+	public long hashPieceLocations(long[] pieceLocations)
 	{
-		if (pieceLocations.size() != 12) {
+		if (pieceLocations.length != 12) {
 			throw new IllegalArgumentException();
 		}
 		long hash = 0L;
 		for (Piece piece : ChessPieces.ALL) {
-			hash ^= pieceLocations.get(piece.ordinal()).iterator()
-					.mapToLong(loc -> getSquarePieceFeature(loc, piece))
-					.fold(0L, (a, b) -> a ^ b);
+			for (long locs = pieceLocations[piece.ordinal()]; locs != 0; locs &= locs - 1) {
+				hash ^= getSquarePieceFeature(lowestSquare(locs), piece);
+			}
 		}
 		return hash;
 	}
@@ -90,7 +107,7 @@ public enum BoardHasher
 	{
 		long hash = activeSide.isWhite()? 0L : getBlackToMoveFeature();
 		hash ^= enpassantSquare == null? 0L : getEnpassantFileFeature(enpassantSquare);
-		hash ^= Iter.over(castlingStatus.getCastlingRights()).mapToLong(this::getCastleRightsFeature).fold(0L, (a, b) -> a ^ b);
+		hash ^= getCastleRightsFeatures(castlingStatus.getCastlingRightsMask());
 		return hash;
 	}
 }
@@ -9,6 +9,7 @@ import static jenjinn.base.Square.D2;
 import static jenjinn.base.Square.H1;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -96,4 +97,15 @@ class BitboardUtilsTest
 				Arguments.of(asList(Square.E1, Square.F2), 0b10000001000L)
 				);
 	}
+
+	@ParameterizedTest
+	@MethodSource("testGetSetBitIndices")
+	void testLowestSquareIteration(final List<Square> expectedSquares, final Long bitboard)
+	{
+		List<Square> iterated = new ArrayList<>();
+		for (long locs = bitboard; locs != 0; locs &= locs - 1) {
+			iterated.add(BitboardUtils.lowestSquare(locs));
+		}
+		assertEquals(expectedSquares, iterated);
+	}
 }
@@ -9,9 +9,11 @@ import static jenjinn.bitboards.BitboardsInit3.findControlSetFromOccupancyVariat
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import java.util.List;
+import java.util.Random;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -19,6 +21,7 @@ import org.junit.jupiter.params.provider.MethodSource;
 import jenjinn.base.Dir;
 import jenjinn.base.Square;
 import jenjinn.bitboards.BitboardsInit3;
+import jenjinn.pieces.PieceMovementDirs;
 import jflow.seq.Seq;
 
 /**
@@ -72,4 +75,29 @@ class BitboardsInit3Test
 
 		return Stream.of(centralCaseOne, centralCaseTwo, centralCaseThree, edgeCaseOne, edgeCaseTwo, edgeCaseThree);
 	}
+
+	/**
+	 * The flattened tables must give the same control sets as the per square
+	 * databases for every occupancy variation, whatever lies outside the
+	 * occupancy mask.
+	 */
+	@Test
+	void testFlatMagicLookup()
+	{
+		Random random = new Random(0x110894L);
+		for (Square square : Square.ALL) {
+			long bishopMask = Bitboards.bishopOccupancyMaskAt(square);
+			for (long occVar : Bitboards.bishopOccupancyVariationAt(square)) {
+				long occupied = occVar | (random.nextLong() & ~bishopMask);
+				long expected = findControlSetFromOccupancyVariation(square, occVar, PieceMovementDirs.BISHOP);
+				assertEquals(expected, Bitboards.bishopControl(square, occupied), square.name());
+			}
+			long rookMask = Bitboards.rookOccupancyMaskAt(square);
+			for (long occVar : Bitboards.rookOccupancyVariationAt(square)) {
+				long occupied = occVar | (random.nextLong() & ~rookMask);
+				long expected = findControlSetFromOccupancyVariation(square, occVar, PieceMovementDirs.ROOK);
+				assertEquals(expected, Bitboards.rookControl(square, occupied), square.name());
+			}
+		}
+	}
 }
@@ -0,0 +1,58 @@
+/**
+ *
+ */
+package jenjinn.bitboards;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author ThomasB
+ */
+class MagicDatabaseTest
+{
+	@Test
+	void testRoundTrip() throws IOException
+	{
+		MagicDatabase generated = MagicDatabase.generate();
+		MagicDatabase read = MagicDatabase.read(new ByteArrayInputStream(write(generated)));
+		assertArrayEquals(generated.bishopMoves, read.bishopMoves);
+		assertArrayEquals(generated.rookMoves, read.rookMoves);
+		// Whichever source the bitboards were initialised from must agree.
+		assertArrayEquals(generated.bishopMoves, BitboardsImpl.BISHOP_MAGIC_MOVES);
+		assertArrayEquals(generated.rookMoves, BitboardsImpl.ROOK_MAGIC_MOVES);
+	}
+
+	@Test
+	void testDifferentMagicNumbersRejected() throws IOException
+	{
+		byte[] bytes = write(new MagicDatabase(BitboardsImpl.BISHOP_MAGIC_MOVES, BitboardsImpl.ROOK_MAGIC_MOVES));
+		// Flip a bit of the first bishop magic number, after the header and masks.
+		bytes[8 + 8 * 64] ^= 1;
+		assertNull(MagicDatabase.read(new ByteArrayInputStream(bytes)));
+	}
+
+	@Test
+	void testTruncatedRejected() throws IOException
+	{
+		byte[] bytes = write(new MagicDatabase(BitboardsImpl.BISHOP_MAGIC_MOVES, BitboardsImpl.ROOK_MAGIC_MOVES));
+		byte[] truncated = Arrays.copyOf(bytes, bytes.length - 8);
+		assertThrows(IOException.class, () -> MagicDatabase.read(new ByteArrayInputStream(truncated)));
+		assertThrows(IOException.class, () -> MagicDatabase.read(new ByteArrayInputStream(new byte[3])));
+	}
+
+	private byte[] write(MagicDatabase database) throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		database.write(out);
+		return out.toByteArray();
+	}
+}
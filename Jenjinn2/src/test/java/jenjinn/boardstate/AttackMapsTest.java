@@ -0,0 +1,66 @@
+/**
+ *
+ */
+package jenjinn.boardstate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import jenjinn.base.Side;
+import jenjinn.boardstate.calculators.SquareControl;
+import jenjinn.moves.ChessMove;
+import jenjinn.perft.PerftSuiteWalker;
+import jenjinn.pieces.ChessPieces;
+import jenjinn.pieces.Piece;
+
+/**
+ * The cached maps must match the control calculated from scratch both before
+ * and after they have been cached, and must be invalidated when a move is
+ * reversed as well as when one is made.
+ *
+ * @author ThomasB
+ */
+class AttackMapsTest
+{
+	@Test
+	void test()
+	{
+		PerftSuiteWalker.walk(2, this::checkMaps, this::checkSideMaps);
+	}
+
+	@Test
+	void testRepeatedRequestsHitCache()
+	{
+		BoardState state = StartStateGenerator.createStartBoard();
+		AttackMaps maps = state.getAttackMaps();
+		long control = maps.of(Side.WHITE);
+		long misses = maps.getMissCount(), hits = maps.getHitCount();
+		assertEquals(control, maps.of(Side.WHITE));
+		assertEquals(control, maps.of(Side.WHITE));
+		assertEquals(misses, maps.getMissCount());
+		assertEquals(hits + 2, maps.getHitCount());
+	}
+
+	private void checkMaps(BoardState state)
+	{
+		AttackMaps maps = state.getAttackMaps();
+		// Ask twice so the second answer comes from the cache.
+		for (int i = 0; i < 2; i++) {
+			for (Side side : Side.values()) {
+				assertEquals(SquareControl.calculate(state, side), maps.of(side));
+			}
+			for (Piece piece : ChessPieces.ALL) {
+				assertEquals(SquareControl.calculate(state, piece), maps.of(piece));
+			}
+		}
+	}
+
+	private void checkSideMaps(BoardState state, ChessMove reversedMove)
+	{
+		AttackMaps maps = state.getAttackMaps();
+		for (Side side : Side.values()) {
+			assertEquals(SquareControl.calculate(state, side), maps.of(side), reversedMove.toString());
+		}
+	}
+}
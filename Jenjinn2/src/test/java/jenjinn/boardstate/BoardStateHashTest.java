@@ -0,0 +1,45 @@
+/**
+ *
+ */
+package jenjinn.boardstate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import jenjinn.moves.ChessMove;
+import jenjinn.perft.PerftSuiteWalker;
+import jenjinn.utils.BoardHasher;
+
+/**
+ * Checks the incrementally maintained hash agrees with the hash calculated
+ * from scratch after making and reversing every legal move two plies deep from
+ * the perft positions, which between them contain every kind of castling
+ * rights change and enpassant square.
+ *
+ * @author ThomasB
+ */
+class BoardStateHashTest
+{
+	@Test
+	void test()
+	{
+		PerftSuiteWalker.walk(2, this::checkHash, this::checkHashAfterReversal);
+	}
+
+	private void checkHash(BoardState state)
+	{
+		assertEquals(calculateFromScratch(state), state.calculateHash());
+	}
+
+	private void checkHashAfterReversal(BoardState state, ChessMove reversedMove)
+	{
+		assertEquals(calculateFromScratch(state), state.calculateHash(), reversedMove.toString());
+	}
+
+	private long calculateFromScratch(BoardState state)
+	{
+		return state.getPieceLocations().getSquarePieceFeatureHash() ^ BoardHasher.INSTANCE
+				.hashNonPieceFeatures(state.getActiveSide(), state.getEnPassantSquare(), state.getCastlingStatus());
+	}
+}
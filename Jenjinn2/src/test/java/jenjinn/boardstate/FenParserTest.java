@@ -0,0 +1,67 @@
+/**
+ *
+ */
+package jenjinn.boardstate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.EnumSet;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import jenjinn.base.CastleZone;
+import jenjinn.base.DevelopmentPiece;
+import jenjinn.base.Side;
+import jenjinn.base.Square;
+import jenjinn.perft.PerftPosition;
+
+/**
+ * @author ThomasB
+ */
+class FenParserTest
+{
+	@Test
+	void testStartPosition()
+	{
+		BoardState expected = StartStateGenerator.createStartBoard();
+		BoardState parsed = FenParser.parse(PerftPosition.START_FEN);
+		assertEquals(expected.getPieceLocations(), parsed.getPieceLocations());
+		assertEquals(expected.getCastlingStatus(), parsed.getCastlingStatus());
+		assertEquals(expected.getDevelopedPieces(), parsed.getDevelopedPieces());
+		assertEquals(expected.getActiveSide(), parsed.getActiveSide());
+		assertEquals(expected.getEnPassantSquare(), parsed.getEnPassantSquare());
+		assertEquals(expected.calculateHash(), parsed.calculateHash());
+		assertEquals(parsed.calculateHash(), parsed.getHashCache().getCurrentHash());
+	}
+
+	@Test
+	void testNonPieceFields()
+	{
+		BoardState parsed = FenParser.parse("rnbqkbnr/pp1ppppp/8/2p5/4P3/5N2/PPPP1PPP/RNBQKB1R b Kq c6 1 2");
+		assertEquals(Side.BLACK, parsed.getActiveSide());
+		assertEquals(Square.C6, parsed.getEnPassantSquare());
+		assertEquals(EnumSet.of(CastleZone.WHITE_KINGSIDE, CastleZone.BLACK_QUEENSIDE),
+				parsed.getCastlingStatus().getCastlingRights());
+		assertEquals(1, parsed.getHalfMoveClock().getValue());
+		assertEquals(3, parsed.getHashCache().getHalfMoveCount());
+		assertEquals(EnumSet.of(DevelopmentPiece.WHITE_E_PAWN, DevelopmentPiece.WHITE_KINGSIDE_KNIGHT),
+				parsed.getDevelopedPieces());
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0",
+			"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1",
+			"rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+			"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1",
+			"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkx - 0 1",
+			"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e4 0 1",
+			"rnbq1bnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1" })
+	void testMalformed(String fen)
+	{
+		assertThrows(IllegalArgumentException.class, () -> FenParser.parse(fen));
+	}
+}
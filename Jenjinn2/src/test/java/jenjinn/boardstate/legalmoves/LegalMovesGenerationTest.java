@@ -39,6 +39,18 @@ class LegalMovesGenerationTest
 		assertEquals(expectedAttacks, actualAttacks, formatDifferences(expectedAttacks, actualAttacks));
 	}
 
+	@SuppressWarnings("unchecked")
+	@ParameterizedTest
+	@MethodSource("test")
+	void testSingleMoveLegality(BoardState state, Set<ChessMove> expectedMoves, Set<ChessMove> expectedAttacks)
+	{
+		Set<ChessMove> candidates = new HashSet<>();
+		test().forEachRemaining(args -> candidates.addAll((Set<ChessMove>) args.get()[1]));
+		for (ChessMove candidate : candidates) {
+			assertEquals(expectedMoves.contains(candidate), LegalMoves.isLegal(state, candidate), candidate.toString());
+		}
+	}
+
 	private String formatDifferences(Set<ChessMove> expectedMoves, Set<ChessMove> actualMoves)
 	{
 		Set<ChessMove> expectedcpy = new HashSet<>(expectedMoves);
@@ -0,0 +1,65 @@
+/**
+ *
+ */
+package jenjinn.boardstate.legalmoves;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import jenjinn.boardstate.BoardState;
+import jenjinn.boardstate.calculators.MoveGenerator;
+import jenjinn.moves.ChessMove;
+import jflow.iterators.factories.Iter;
+
+/**
+ * @author ThomasB
+ */
+class MoveGeneratorTest
+{
+	@ParameterizedTest
+	@MethodSource
+	void test(BoardState state, Set<ChessMove> expectedMoves, Set<ChessMove> expectedAttacks)
+	{
+		MoveGenerator generator = new MoveGenerator();
+		generator.initialise(state);
+		int[] buffer = new int[MoveGenerator.MAX_MOVES];
+
+		int capturesEnd = generator.generateCaptures(buffer, 0);
+		int quietsEnd = generator.generateQuiets(buffer, capturesEnd);
+		Set<ChessMove> captures = decode(buffer, 0, capturesEnd);
+		Set<ChessMove> quiets = decode(buffer, capturesEnd, quietsEnd);
+
+		Set<ChessMove> allMoves = new HashSet<>(captures);
+		allMoves.addAll(quiets);
+		assertEquals(quietsEnd, allMoves.size(), "Duplicate moves generated");
+		assertEquals(expectedMoves, allMoves);
+
+		long passiveLocs = state.getPieceLocations().getSideLocations(state.getActiveSide().otherSide());
+		Set<ChessMove> expectedCaptures = Iter.over(expectedMoves)
+				.filter(mv -> (mv.getTarget().bitboard & passiveLocs) != 0 || mv.getTarget() == state.getEnPassantSquare() && mv.toCompactString().startsWith("E"))
+				.toSet();
+		assertEquals(expectedCaptures, captures);
+		assertEquals(!expectedMoves.isEmpty(), generator.hasLegalMoves(buffer, 0));
+	}
+
+	static Iterator<Arguments> test()
+	{
+		return LegalMovesGenerationTest.test();
+	}
+
+	static Set<ChessMove> decode(int[] buffer, int start, int end)
+	{
+		Set<ChessMove> moves = new HashSet<>();
+		for (int i = start; i < end; i++) {
+			moves.add(ChessMove.decode(buffer[i]));
+		}
+		return moves;
+	}
+}
@@ -0,0 +1,58 @@
+/**
+ *
+ */
+package jenjinn.eval;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import jenjinn.boardstate.BoardState;
+import jenjinn.boardstate.DetailedPieceLocations;
+import jenjinn.moves.ChessMove;
+import jenjinn.perft.PerftSuiteWalker;
+import jenjinn.pieces.ChessPieces;
+import jenjinn.pieces.Piece;
+
+/**
+ * The development eval and phase material carried by the state must equal
+ * their values recomputed from the pieces, and the split evaluation must sum to
+ * the full one. The perft positions exercise castling and every kind of
+ * developing move.
+ *
+ * @author ThomasB
+ */
+class IncrementalEvaluationTest
+{
+	private final StateEvaluator evaluator = new StateEvaluator(10);
+
+	@Test
+	void test()
+	{
+		PerftSuiteWalker.walk(2, this::checkEvaluation, this::checkDevelopment);
+	}
+
+	private void checkEvaluation(BoardState state)
+	{
+		assertEquals(DevelopmentEvaluator.evaluateFromScratch(state.getDevelopedPieces(), state.getCastlingStatus()),
+				state.getDevelopmentEval());
+		assertEquals(calculatePhaseMaterial(state.getPieceLocations()), state.getPieceLocations().getPhaseMaterial());
+		assertEquals(evaluator.evaluate(state),
+				evaluator.evaluateIncremental(state) + evaluator.evaluateNonIncremental(state));
+	}
+
+	private void checkDevelopment(BoardState state, ChessMove reversedMove)
+	{
+		assertEquals(DevelopmentEvaluator.evaluateFromScratch(state.getDevelopedPieces(), state.getCastlingStatus()),
+				state.getDevelopmentEval(), reversedMove.toString());
+	}
+
+	private int calculatePhaseMaterial(DetailedPieceLocations pieceLocs)
+	{
+		int phaseMaterial = 0;
+		for (Piece piece : ChessPieces.ALL) {
+			phaseMaterial += pieceLocs.pieceCountOf(piece) * PieceLocationEvaluator.phaseValueOf(piece);
+		}
+		return phaseMaterial;
+	}
+}
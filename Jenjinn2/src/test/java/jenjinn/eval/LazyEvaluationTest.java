@@ -0,0 +1,59 @@
+/**
+ *
+ */
+package jenjinn.eval;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import org.junit.jupiter.api.Test;
+
+import jenjinn.boardstate.BoardState;
+import jenjinn.perft.PerftSuiteWalker;
+
+/**
+ * Checks the lazy evaluation against the full evaluation over windows placed
+ * around, above and below the full score of every position one ply from the
+ * perft positions. Outside the window the lazy score must bound the full score
+ * whenever the skipped terms lie within their margins.
+ *
+ * @author ThomasB
+ */
+class LazyEvaluationTest
+{
+	private static final int[] WINDOW_OFFSETS = { -3000, -1000, -300, 0, 300, 1000, 3000 };
+	private static final int WINDOW_WIDTH = 100;
+
+	private final StateEvaluator full = new StateEvaluator(10), lazy = new StateEvaluator(10);
+
+	@Test
+	void test()
+	{
+		PerftSuiteWalker.walk(1, this::checkEvaluation);
+		assertTrue(lazy.getLazyExitCount() > 0);
+		assertTrue(lazy.getLazyExitCount() < lazy.getLazyEvaluationCount());
+	}
+
+	private void checkEvaluation(BoardState state)
+	{
+		int score = full.evaluate(state);
+		int pawns = Math.abs(new PawnStructureEvaluator(1).evaluate(state));
+		int kingSafety = Math.abs(new KingSafetyEvaluator().evaluate(state));
+		boolean withinMargins = pawns <= StateEvaluator.PAWN_STRUCTURE_MARGIN
+				&& kingSafety <= StateEvaluator.KING_SAFETY_MARGIN;
+		for (int offset : WINDOW_OFFSETS) {
+			int alpha = score + offset - WINDOW_WIDTH / 2, beta = alpha + WINDOW_WIDTH;
+			int lazyScore = lazy.evaluate(state, alpha, beta);
+			if (!lazy.isLastEvaluationBound()) {
+				assertEquals(score, lazyScore);
+			} else if (alpha < lazyScore && lazyScore < beta) {
+				fail("A bound must lie outside the window");
+			} else if (withinMargins && lazyScore <= alpha) {
+				assertTrue(score <= lazyScore);
+			} else if (withinMargins) {
+				assertTrue(score >= lazyScore);
+			}
+		}
+	}
+}
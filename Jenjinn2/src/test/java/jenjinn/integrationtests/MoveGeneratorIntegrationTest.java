@@ -0,0 +1,74 @@
+/**
+ *
+ */
+package jenjinn.integrationtests;
+
+import static java.util.Comparator.naturalOrder;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import jenjinn.base.FileUtils;
+import jenjinn.boardstate.BoardState;
+import jenjinn.boardstate.StartStateGenerator;
+import jenjinn.boardstate.calculators.LegalMoves;
+import jenjinn.boardstate.calculators.MoveGenerator;
+import jenjinn.moves.ChessMove;
+import jenjinn.pgn.BadPgnException;
+import jenjinn.pgn.PgnGameConverter;
+import jflow.seq.Seq;
+
+/**
+ * Checks the buffer based move generator agrees with the legal moves
+ * calculator in every position of a selection of games.
+ *
+ * @author ThomasB
+ */
+class MoveGeneratorIntegrationTest
+{
+	/**
+	 * How many games from each file we will test.
+	 */
+	private final int nGames = 10;
+
+	@Test
+	void test()
+	{
+		Seq<String> files = FileUtils.cacheResource(getClass(), "integrationtestpgns").sorted(naturalOrder());
+		MoveGenerator generator = new MoveGenerator();
+		int[] buffer = new int[MoveGenerator.MAX_MOVES];
+
+		for (String filename : files) {
+			try (BufferedReader reader = FileUtils.loadResource(getClass(), filename)) {
+				reader.lines().limit(nGames).forEach(pgn -> {
+					try {
+						BoardState state = StartStateGenerator.createStartBoard();
+						for (ChessMove move : PgnGameConverter.parse(pgn.trim())) {
+							generator.initialise(state);
+							int end = generator.generateQuiets(buffer, generator.generateCaptures(buffer, 0));
+							Set<ChessMove> generated = new HashSet<>();
+							for (int i = 0; i < end; i++) {
+								generated.add(ChessMove.decode(buffer[i]));
+							}
+							assertEquals(LegalMoves.getAllMoves(state).toSet(), generated, pgn);
+							assertEquals(end, generated.size());
+							move.makeMove(state);
+						}
+					} catch (BadPgnException e) {
+						e.printStackTrace();
+						fail("Pgn: " + pgn + "\n" + filename);
+					}
+				});
+			} catch (IOException e1) {
+				e1.printStackTrace();
+				fail();
+			}
+		}
+	}
+}
@@ -43,4 +43,25 @@ class MoveDecodingTest
 				Arguments.of("CastleMove[zone=wq]", "wq", new CastleMove(CastleZone.WHITE_QUEENSIDE))
 				);
 	}
+
+	@ParameterizedTest
+	@MethodSource
+	void testCompactEncoding(ChessMove move)
+	{
+		int encoding = move.toCompactEncoding();
+		assertEquals(encoding, encoding & 0xFFFF);
+		assertEquals(move, ChessMove.decode(encoding));
+	}
+
+	static Flow<ChessMove> testCompactEncoding()
+	{
+		return Iter.<ChessMove>over(
+				new StandardMove(Square.A2, Square.A4),
+				new StandardMove(Square.H8, Square.A1),
+				new EnpassantMove(Square.E5, Square.D6),
+				new EnpassantMove(Square.B4, Square.C3),
+				new PromotionMove(Square.A7, Square.A8, PromotionResult.Q),
+				new PromotionMove(Square.G2, Square.H1, PromotionResult.N))
+				.append(CastleZone.ALL.flow().<ChessMove>map(CastleMove::new));
+	}
 }
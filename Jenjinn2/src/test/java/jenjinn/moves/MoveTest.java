@@ -3,14 +3,23 @@
  */
 package jenjinn.moves;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
 
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
 import jenjinn.boardstate.BoardState;
 import jenjinn.boardstate.MoveReversalData;
+import jenjinn.boardstate.StartStateGenerator;
+import jenjinn.boardstate.calculators.LegalMoves;
 import jflow.iterators.factories.IterRange;
 import jflow.iterators.factories.Repeatedly;
 import jflow.iterators.misc.Strings;
@@ -32,6 +41,43 @@ class MoveTest extends AbstractBoardStateTest
 		assertBoardStatesAreEqual(expected, startState);
 		moveToTest.reverseMove(startState, reversalData);
 		assertBoardStatesAreEqual(startCopy, startState);
+
+		moveToTest.makeMove(startState);
+		assertBoardStatesAreEqual(expected, startState);
+		assertEquals(1, startState.getUndoStackSize());
+		moveToTest.reverseMove(startState);
+		assertBoardStatesAreEqual(startCopy, startState);
+		assertEquals(0, startState.getUndoStackSize());
+	}
+
+	/**
+	 * Plays a long random game on the undo stack of a state, growing it past its
+	 * initial capacity, and then reverses it one move at a time.
+	 */
+	@Test
+	void testUndoStack()
+	{
+		Random random = new Random(0x5eedL);
+		BoardState state = StartStateGenerator.createStartBoard();
+		List<BoardState> history = new ArrayList<>();
+		List<ChessMove> movesMade = new ArrayList<>();
+		for (int i = 0; i < 80; i++) {
+			List<ChessMove> legalMoves = LegalMoves.getAllMoves(state).toList();
+			if (legalMoves.isEmpty()) {
+				break;
+			}
+			ChessMove mv = legalMoves.get(random.nextInt(legalMoves.size()));
+			history.add(state.copy());
+			movesMade.add(mv);
+			mv.makeMove(state);
+		}
+		assertEquals(movesMade.size(), state.getUndoStackSize());
+		for (int i = movesMade.size() - 1; i >= 0; i--) {
+			movesMade.get(i).reverseMove(state);
+			assertBoardStatesAreEqual(history.get(i), state);
+			assertEquals(history.get(i).calculateHash(), state.calculateHash());
+		}
+		assertThrows(IllegalStateException.class, state::popReversalData);
 	}
 
 	static Iterator<Arguments> test()
@@ -0,0 +1,42 @@
+/**
+ *
+ */
+package jenjinn.movesearch;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import jenjinn.base.Square;
+import jenjinn.boardstate.DetailedPieceLocations;
+import jenjinn.boardstate.FenParser;
+
+/**
+ * @author ThomasB
+ */
+class MoveOrderingTest
+{
+	@Test
+	void testSortByScore()
+	{
+		int[] moves = { 10, 11, 12, 13, 14, 15 };
+		int[] scores = { 0, 3, 1, 3, 7, 0 };
+		// The first element is outside the range and should be left alone.
+		MoveOrdering.sortByScore(moves, scores, 1, moves.length);
+		assertArrayEquals(new int[] { 10, 14, 11, 13, 12, 15 }, moves);
+		assertArrayEquals(new int[] { 0, 7, 3, 3, 1, 0 }, scores);
+	}
+
+	@Test
+	void testMvvLva()
+	{
+		// White can take the queen on d5 with the pawn or knight and the pawn on e5 with the queen.
+		DetailedPieceLocations locs = FenParser.parse("4k3/8/8/3qp3/4P3/2N5/7Q/4K3 w - - 0 1").getPieceLocations();
+		int pawnTakesQueen = MoveOrdering.mvvLva(locs, Square.E4, Square.D5);
+		int knightTakesQueen = MoveOrdering.mvvLva(locs, Square.C3, Square.D5);
+		int queenTakesPawn = MoveOrdering.mvvLva(locs, Square.H2, Square.E5);
+		assertTrue(pawnTakesQueen > knightTakesQueen);
+		assertTrue(knightTakesQueen > queenTakesPawn);
+	}
+}
@@ -0,0 +1,49 @@
+/**
+ *
+ */
+package jenjinn.movesearch;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author ThomasB
+ */
+class SearchClockTest
+{
+	@Test
+	void testUnlimited()
+	{
+		SearchClock clock = SearchClock.unlimited();
+		assertFalse(clock.hardLimitReached(0));
+		assertTrue(clock.canStartIteration(100));
+		clock.stop();
+		assertTrue(clock.hardLimitReached(1));
+		assertFalse(clock.canStartIteration(0));
+	}
+
+	@Test
+	void testLimitsPassed() throws InterruptedException
+	{
+		SearchClock clock = SearchClock.withTimeLimit(20);
+		Thread.sleep(30);
+		// The system clock is only read on a multiple of the check interval.
+		assertFalse(clock.hardLimitReached(1));
+		assertTrue(clock.hardLimitReached(SearchClock.CHECK_INTERVAL));
+		assertTrue(clock.isStopped());
+		assertFalse(clock.canStartIteration(0));
+	}
+
+	@Test
+	void testEasyMove() throws InterruptedException
+	{
+		SearchClock clock = SearchClock.withTimeLimit(600);
+		// Past the easy move limit but well before the soft limit.
+		Thread.sleep(150);
+		assertTrue(clock.canStartIteration(SearchClock.EASY_MOVE_ITERATIONS - 1));
+		assertFalse(clock.canStartIteration(SearchClock.EASY_MOVE_ITERATIONS));
+		assertFalse(clock.hardLimitReached(0));
+	}
+}
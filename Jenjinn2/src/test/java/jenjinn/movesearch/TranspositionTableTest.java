@@ -0,0 +1,93 @@
+/**
+ *
+ */
+package jenjinn.movesearch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import jflow.iterators.factories.IterRange;
+
+/**
+ * @author ThomasB
+ */
+class TranspositionTableTest
+{
+	@Test
+	void testSizing()
+	{
+		assertEquals(1 << 16, new TranspositionTable(1).getSlotCount());
+		assertEquals(1 << 17, new TranspositionTable(3).getSlotCount());
+	}
+
+	@Test
+	void testPackingRoundTrip()
+	{
+		for (TreeNodeType type : TreeNodeType.values()) {
+			for (int score : new int[] { -IntConstants.MAX_NEGATABLE_VALUE, -1, 0, 37, IntConstants.MAX_NEGATABLE_VALUE }) {
+				long packed = TranspositionTable.pack(type, score, 513, 19);
+				assertEquals(type, TranspositionTable.typeOf(packed));
+				assertEquals(score, TranspositionTable.scoreOf(packed));
+				assertEquals(513, TranspositionTable.notableMoveOf(packed));
+				assertEquals(19, TranspositionTable.depthOf(packed));
+			}
+		}
+	}
+
+	@Test
+	void testSetAndGet()
+	{
+		TranspositionTable table = new TranspositionTable(1);
+		long hash = 0xDEADBEEFCAFEL;
+		assertEquals(TranspositionTable.NO_ENTRY, table.get(hash));
+
+		table.set(hash, TreeNodeType.CUT, -250, TranspositionTable.NO_MOVE, 4);
+		long entry = table.get(hash);
+		assertEquals(TreeNodeType.CUT, TranspositionTable.typeOf(entry));
+		assertEquals(-250, TranspositionTable.scoreOf(entry));
+		assertEquals(TranspositionTable.NO_MOVE, TranspositionTable.notableMoveOf(entry));
+		assertEquals(4, TranspositionTable.depthOf(entry));
+
+		// A second store for the same position replaces the first in place.
+		table.set(hash, TreeNodeType.ALL, 10, 2, 6);
+		entry = table.get(hash);
+		assertEquals(TreeNodeType.ALL, TranspositionTable.typeOf(entry));
+		assertEquals(10, TranspositionTable.scoreOf(entry));
+		assertEquals(2, TranspositionTable.notableMoveOf(entry));
+		assertEquals(6, TranspositionTable.depthOf(entry));
+		assertEquals(TranspositionTable.NO_ENTRY, table.get(hash + table.getSlotCount()));
+	}
+
+	@Test
+	void testShallowestEntryReplacedInFullBucket()
+	{
+		TranspositionTable table = new TranspositionTable(1);
+		long bucketStride = table.getSlotCount();
+		long[] hashes = IterRange.to(5).mapToLong(i -> 77 + i * bucketStride).toArray();
+		int[] depths = { 5, 2, 7, 3, 4 };
+		for (int i = 0; i < hashes.length; i++) {
+			table.set(hashes[i], TreeNodeType.PRINCIPLE_VALUE, i, i, depths[i]);
+		}
+		assertEquals(TranspositionTable.NO_ENTRY, table.get(hashes[1]));
+		for (int i : new int[] { 0, 2, 3, 4 }) {
+			assertEquals(i, TranspositionTable.scoreOf(table.get(hashes[i])));
+		}
+	}
+
+	@Test
+	void testOldEntriesPreferredForReplacement()
+	{
+		TranspositionTable table = new TranspositionTable(1);
+		long bucketStride = table.getSlotCount();
+		long[] hashes = IterRange.to(5).mapToLong(i -> 77 + i * bucketStride).toArray();
+		table.set(hashes[0], TreeNodeType.PRINCIPLE_VALUE, 0, 0, 9);
+		table.incrementGeneration();
+		table.incrementGeneration();
+		for (int i = 1; i < hashes.length; i++) {
+			table.set(hashes[i], TreeNodeType.PRINCIPLE_VALUE, i, i, 2);
+		}
+		assertEquals(TranspositionTable.NO_ENTRY, table.get(hashes[0]));
+		assertEquals(4, TranspositionTable.scoreOf(table.get(hashes[4])));
+	}
+}
@@ -0,0 +1,223 @@
+/**
+ *
+ */
+package jenjinn.movesearch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import jenjinn.boardstate.BoardState;
+import jenjinn.boardstate.FenParser;
+import jenjinn.boardstate.calculators.LegalMoves;
+import jenjinn.moves.ChessMove;
+
+/**
+ * The mating move must be found at every depth, with and without the selective
+ * search, the deeper searches finding the mate score from the previous
+ * iteration outside their first aspiration window.
+ *
+ * @author ThomasB
+ */
+class TreeSearcherTest
+{
+	@ParameterizedTest
+	@MethodSource
+	void testFindsMateInOne(String fen, String expectedMove, int depth, boolean selective)
+	{
+		TreeSearcher searcher = new TreeSearcher();
+		searcher.setNullMovePruning(selective);
+		searcher.setLateMoveReductions(selective);
+		Optional<ChessMove> bestMove = searcher.getBestMoveToDepth(FenParser.parse(fen), depth);
+		assertEquals(Optional.of(ChessMove.decode(expectedMove)), bestMove);
+	}
+
+	/**
+	 * A timed search must return within its limit, with or without helper
+	 * threads, and leave the root as it found it even though it is aborted in
+	 * the middle of the tree.
+	 */
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 3 })
+	void testTimedSearch(int threadCount)
+	{
+		String fen = "r1bq1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP1B1PPP/R2QKB1R w KQ - 0 1";
+		BoardState root = FenParser.parse(fen), rootCopy = root.copy();
+		TreeSearcher searcher = new TreeSearcher(threadCount);
+		long timeLimit = 300, start = System.currentTimeMillis();
+		assertTrue(searcher.getBestMoveFrom(root, timeLimit).isPresent());
+		// Allow for the overshoot of polling the clock and waiting for the helpers.
+		assertTrue(System.currentTimeMillis() - start < timeLimit + 200);
+		assertEquals(rootCopy.getPieceLocations(), root.getPieceLocations());
+		assertEquals(rootCopy.getHashCache(), root.getHashCache());
+		assertEquals(rootCopy.calculateHash(), root.calculateHash());
+	}
+
+	@ParameterizedTest
+	@MethodSource
+	void testPondering(boolean ponderHit)
+	{
+		// After 1.e4 e5 2.Nf3 with black to move.
+		String fen = "rnbqkbnr/pppp1ppp/8/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R b KQkq - 1 2";
+		BoardState state = FenParser.parse(fen);
+		long hashBefore = state.calculateHash();
+		TreeSearcher searcher = new TreeSearcher(2);
+		List<SearchStatistics> completed = new ArrayList<>();
+		searcher.addSearchListener(new SearchListener() {
+			@Override
+			public void searchCompleted(SearchStatistics statistics)
+			{
+				completed.add(statistics);
+			}
+		});
+		ChessMove expectedReply = searcher.startPondering(state).get();
+		assertTrue(searcher.isPondering());
+		assertEquals(hashBefore, state.calculateHash());
+
+		ChessMove reply = ponderHit ? expectedReply
+				: LegalMoves.getAllMoves(state).filter(mv -> !mv.equals(expectedReply)).next();
+		reply.makeMove(state);
+		ChessMove bestMove = searcher.getBestMoveFrom(state, 200).get();
+		assertFalse(searcher.isPondering());
+		assertTrue(LegalMoves.isLegal(state, bestMove));
+		// A missed ponder search is discarded without completing.
+		assertEquals(1, completed.size());
+		assertEquals(Optional.of(completed.get(0)), searcher.getLastSearchStatistics());
+	}
+
+	@Test
+	void testNoPonderingWhenTerminal()
+	{
+		TreeSearcher searcher = new TreeSearcher();
+		BoardState mated = FenParser.parse("k6R/8/1K6/8/8/8/8/8 b - - 1 1");
+		assertEquals(Optional.empty(), searcher.startPondering(mated));
+		assertFalse(searcher.isPondering());
+		searcher.stopPondering();
+	}
+
+	@Test
+	void testSearchStatistics()
+	{
+		String fen = "r1bq1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP1B1PPP/R2QKB1R w KQ - 0 1";
+		List<SearchStatistics> iterations = new ArrayList<>(), completed = new ArrayList<>();
+		TreeSearcher searcher = new TreeSearcher();
+		searcher.addSearchListener(new SearchListener() {
+			@Override
+			public void iterationCompleted(SearchStatistics statistics)
+			{
+				iterations.add(statistics);
+			}
+
+			@Override
+			public void searchCompleted(SearchStatistics statistics)
+			{
+				completed.add(statistics);
+			}
+		});
+		assertEquals(Optional.empty(), searcher.getLastSearchStatistics());
+		searcher.getBestMoveToDepth(FenParser.parse(fen), 4);
+
+		assertEquals(4, iterations.size());
+		for (int i = 0; i < iterations.size(); i++) {
+			assertEquals(i + 1, iterations.get(i).getDepth());
+		}
+		assertEquals(1, completed.size());
+		SearchStatistics statistics = completed.get(0);
+		assertEquals(Optional.of(statistics), searcher.getLastSearchStatistics());
+		assertEquals(4, statistics.getDepth());
+		assertTrue(statistics.getSelectiveDepth() >= 4);
+		assertEquals(searcher.getNodeCount(), statistics.getTotalNodes());
+		assertTrue(statistics.getQuiescentNodes() > 0);
+		assertTrue(statistics.getTableProbes() >= statistics.getTableHits());
+		assertTrue(statistics.getTableHits() >= statistics.getTableCutoffs());
+		assertTrue(statistics.getTableCutoffs() > 0);
+		assertEquals(searcher.getCutoffCount(), statistics.getCutoffCount());
+		assertEquals(searcher.getFirstMoveCutoffCount(), statistics.getCutoffsByMoveIndex()[0]);
+		assertTrue(statistics.getElapsedTime() >= statistics.getIterationTime());
+	}
+
+	@ParameterizedTest
+	@MethodSource
+	void testQuiescentHashing(boolean enabled)
+	{
+		String fen = "r1bq1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP1B1PPP/R2QKB1R w KQ - 0 1";
+		BoardState root = FenParser.parse(fen);
+		TreeSearcher searcher = new TreeSearcher();
+		searcher.setQuiescentHashing(enabled);
+		assertTrue(LegalMoves.isLegal(root, searcher.getBestMoveToDepth(root, 4).get()));
+		SearchStatistics statistics = searcher.getLastSearchStatistics().get();
+		assertTrue(statistics.getQuiescentTableProbes() >= statistics.getQuiescentTableHits());
+		assertTrue(statistics.getQuiescentTableHits() >= statistics.getQuiescentTableCutoffs());
+		assertEquals(enabled, statistics.getQuiescentTableCutoffs() > 0);
+		assertEquals(enabled, statistics.getQuiescentTableProbes() > 0);
+	}
+
+	@Test
+	void testPrincipalVariation()
+	{
+		String fen = "r1bq1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP1B1PPP/R2QKB1R w KQ - 0 1";
+		BoardState root = FenParser.parse(fen), rootCopy = root.copy();
+		List<SearchResult> results = new TreeSearcher().analyseToDepth(root, 5, 1);
+		assertEquals(1, results.size());
+		SearchResult result = results.get(0);
+		assertEquals(5, result.getDepth());
+		assertEquals(new TreeSearcher().getBestMoveToDepth(rootCopy, 5).get(), result.getBestMove());
+		assertEquals(rootCopy.calculateHash(), root.calculateHash());
+
+		List<ChessMove> line = result.getPrincipalVariation();
+		assertTrue(line.size() >= 5);
+		for (ChessMove mv : line) {
+			assertTrue(LegalMoves.isLegal(rootCopy, mv));
+			mv.makeMove(rootCopy);
+		}
+	}
+
+	@Test
+	void testMultiplePrincipalVariations()
+	{
+		// Mates are not scored by distance so the depth is too low to find slower ones.
+		BoardState root = FenParser.parse("k7/8/1K6/8/8/8/8/7R w - - 0 1");
+		List<SearchResult> results = new TreeSearcher().analyseToDepth(root, 2, 4);
+		assertEquals(4, results.size());
+		assertEquals(ChessMove.decode("Sh1h8"), results.get(0).getBestMove());
+		assertEquals(4, results.stream().map(SearchResult::getBestMove).distinct().count());
+		for (int i = 1; i < results.size(); i++) {
+			assertTrue(results.get(i - 1).getScore() >= results.get(i).getScore());
+			assertTrue(results.get(0).getScore() > results.get(i).getScore());
+		}
+
+		// The black king has only two moves.
+		BoardState fewMoves = FenParser.parse("k7/8/2K5/8/8/8/8/7R b - - 0 1");
+		assertEquals(2, new TreeSearcher().analyseToDepth(fewMoves, 3, 4).size());
+	}
+
+	static Stream<Arguments> testFindsMateInOne()
+	{
+		String whiteMates = "k7/8/1K6/8/8/8/8/7R w - - 0 1";
+		String blackMates = "7r/8/8/8/8/1k6/8/K7 b - - 0 1";
+		return Stream.of(1, 2, 3, 4).flatMap(depth -> Stream.of(true, false).flatMap(selective -> Stream.of(
+				Arguments.of(whiteMates, "Sh1h8", depth, selective),
+				Arguments.of(blackMates, "Sh8h1", depth, selective))));
+	}
+
+	static Stream<Boolean> testPondering()
+	{
+		return Stream.of(true, false);
+	}
+
+	static Stream<Boolean> testQuiescentHashing()
+	{
+		return Stream.of(true, false);
+	}
+}
@@ -0,0 +1,61 @@
+/**
+ *
+ */
+package jenjinn.perft;
+
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import jenjinn.boardstate.BoardState;
+import jenjinn.boardstate.MoveReversalData;
+import jenjinn.boardstate.calculators.LegalMoves;
+import jenjinn.moves.ChessMove;
+
+/**
+ * Walks the tree of legal moves below each position of the standard perft
+ * suite, making and reversing the moves on a single state. It is for tests of
+ * anything a state keeps up to date as moves are made and reversed.
+ *
+ * @author ThomasB
+ */
+public final class PerftSuiteWalker
+{
+	private PerftSuiteWalker()
+	{
+	}
+
+	/**
+	 * Passes every state within the given number of plies of the suite positions
+	 * to the visitor.
+	 */
+	public static void walk(int depth, Consumer<BoardState> visitor)
+	{
+		walk(depth, visitor, (state, move) -> {});
+	}
+
+	/**
+	 * As {@link #walk(int, Consumer)} but each time a move is reversed the state
+	 * is also passed, together with the move, to the reversal check.
+	 */
+	public static void walk(int depth, Consumer<BoardState> visitor, BiConsumer<BoardState, ChessMove> reversalCheck)
+	{
+		for (PerftPosition position : PerftPosition.loadStandardSuite()) {
+			walk(position.createState(), depth, visitor, reversalCheck);
+		}
+	}
+
+	private static void walk(BoardState state, int depth, Consumer<BoardState> visitor,
+			BiConsumer<BoardState, ChessMove> reversalCheck)
+	{
+		visitor.accept(state);
+		if (depth > 0) {
+			for (ChessMove move : LegalMoves.getAllMoves(state).toSeq()) {
+				MoveReversalData reverser = new MoveReversalData();
+				move.makeMove(state, reverser);
+				walk(state, depth - 1, visitor, reversalCheck);
+				move.reverseMove(state, reverser);
+				reversalCheck.accept(state, move);
+			}
+		}
+	}
+}
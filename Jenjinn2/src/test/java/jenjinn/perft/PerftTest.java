@@ -0,0 +1,61 @@
+/**
+ *
+ */
+package jenjinn.perft;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import jenjinn.boardstate.BoardState;
+import jenjinn.perft.Perft.Generator;
+import jflow.iterators.Flow;
+import jflow.iterators.factories.Iter;
+import jflow.seq.Seq;
+
+/**
+ * Checks both move generators against the known perft results of the standard
+ * suite, limited to depths which complete quickly.
+ *
+ * @author ThomasB
+ */
+class PerftTest
+{
+	@ParameterizedTest
+	@MethodSource
+	void test(PerftPosition position, Generator generator, long maxLeafCount)
+	{
+		Perft bulkPerft = new Perft(generator, true), perft = new Perft(generator, false);
+		for (int depth = 1; depth <= position.getMaxKnownDepth(); depth++) {
+			long expected = position.getExpectedCount(depth);
+			if (expected > maxLeafCount) {
+				break;
+			}
+			BoardState state = position.createState();
+			assertEquals(expected, bulkPerft.count(state, depth), position.getFen());
+			if (depth < 3) {
+				assertEquals(expected, perft.count(state, depth), position.getFen());
+				assertEquals(expected, (long) perft.divide(state, depth).values().stream().mapToLong(x -> x).sum());
+			}
+		}
+	}
+
+	/**
+	 * Kiwipete after 1. Rd1 hxg2, where gxh1=Q captures the rook that white can
+	 * castle with. The standard suite only reaches such promotions at depths
+	 * beyond the caps. The count at depth 3 is the published Kiwipete division
+	 * for this line.
+	 */
+	private static final PerftPosition PROMOTION_CAPTURES_ROOK = new PerftPosition(
+			"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q2/PPPBBPpP/3RK2R w Kkq - 0 2", Seq.of(42L, 2141L, 87293L));
+
+	static Flow<Arguments> test()
+	{
+		return PerftPosition.loadStandardSuite().append(PROMOTION_CAPTURES_ROOK).flow()
+				.flatMap(position -> Iter.over(
+						Arguments.of(position, Generator.LEGAL_MOVES, 100_000L),
+						Arguments.of(position, Generator.MOVE_GENERATOR, 5_000_000L)));
+	}
+}
@@ -25,6 +25,8 @@ import jenjinn.boardstate.calculators.LegalMoves;
 import jenjinn.boardstate.calculators.TerminationState;
 import jenjinn.entity.Jenjinn;
 import jenjinn.moves.ChessMove;
+import jenjinn.movesearch.SearchListener;
+import jenjinn.movesearch.SearchStatistics;
 import jflow.iterators.misc.Optionals;
 
 /**
@@ -37,6 +39,7 @@ public final class ChessGame
 
 	private final Property<Side> sideToMove = new SimpleObjectProperty<>(Side.WHITE);
 	private final Property<GameTermination> terminationState = new SimpleObjectProperty<>(GameTermination.NOT_TERMINAL);
+	private final Property<SearchStatistics> lastSearch = new SimpleObjectProperty<>();
 	private final Jenjinn jenjinn;
 	private final BoardState stateOfPlay;
 	private final ChessBoard board;
@@ -47,6 +50,13 @@ public final class ChessGame
 	public ChessGame(Side humanSide, ColorScheme colors)
 	{
 		jenjinn = new Jenjinn();
+		jenjinn.addSearchListener(new SearchListener() {
+			@Override
+			public void searchCompleted(SearchStatistics statistics)
+			{
+				lastSearch.setValue(statistics);
+			}
+		});
 		stateOfPlay = StartStateGenerator.createStartBoard();
 		board = new ChessBoard(colors, stateOfPlay);
 		movesPlayed = new ArrayList<>();
@@ -135,6 +145,8 @@ public final class ChessGame
 			movesPlayed.add(jenjinnChoice);
 			Platform.runLater(board::redraw);
 			if (!terminalStateReached()) {
+				// Think on the human's time, calculateBestMove picks the search up again.
+				jenjinn.startPondering(stateOfPlay.copy());
 				Platform.runLater(board.getFxComponent()::setInteractionEnabled);
 			}
 		}).start();
@@ -145,6 +157,11 @@ public final class ChessGame
 		return stateOfPlay.getPieceLocations().getSideLocations(stateOfPlay.getActiveSide());
 	}
 
+	void stopPondering()
+	{
+		jenjinn.stopPondering();
+	}
+
 	public Node getFxComponent()
 	{
 		return board.getFxComponent();
@@ -160,6 +177,15 @@ public final class ChessGame
 		return terminationState;
 	}
 
+	/**
+	 * @return the statistics of the most recent search made by the engine, set on
+	 *         the thread which made the search.
+	 */
+	public Property<SearchStatistics> getLastSearchProperty()
+	{
+		return lastSearch;
+	}
+
 	public void forceRedraw()
 	{
 		Platform.runLater(board::redraw);
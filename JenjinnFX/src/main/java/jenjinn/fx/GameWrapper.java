@@ -11,10 +11,12 @@ import javafx.geometry.Pos;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.Slider;
+import javafx.scene.control.Tooltip;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.Region;
 import javafx.scene.text.Font;
 import jenjinn.base.Side;
+import jenjinn.movesearch.SearchStatistics;
 import jenjinn.pieces.Piece;
 
 /**
@@ -106,9 +108,11 @@ public final class GameWrapper extends Region
 	private void reset()
 	{
 		ChessGame toRemove = chessGame.get();
+		toRemove.stopPondering();
 		chessGame = Optional.empty();
 		getChildren().remove(toRemove.getFxComponent());
 		gameInfoLabel.setText(GameStageMessages.WAITING_FOR_GAME_START);
+		gameInfoLabel.setTooltip(null);
 		setSideSelectorVisibility(true);
 		playAgain.setVisible(false);
 	}
@@ -143,6 +147,10 @@ public final class GameWrapper extends Region
 			});
 		});
 
+		game.getLastSearchProperty().addListener((x, y, statistics) -> {
+			Platform.runLater(() -> gameInfoLabel.setTooltip(new Tooltip(formatSearch(statistics))));
+		});
+
 		game.getTerminationStateProperty().addListener((x, y, termState) -> {
 			Platform.runLater(() -> {
 				switch (termState) {
@@ -163,6 +171,12 @@ public final class GameWrapper extends Region
 		});
 	}
 
+	private String formatSearch(SearchStatistics statistics)
+	{
+		return String.format("Depth %d (%d selective), %,d nodes at %,d per second", statistics.getDepth(),
+				statistics.getSelectiveDepth(), statistics.getTotalNodes(), statistics.getNodesPerSecond());
+	}
+
 	@Override
 	protected void layoutChildren()
 	{
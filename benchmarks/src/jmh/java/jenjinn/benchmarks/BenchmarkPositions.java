@@ -0,0 +1,130 @@
+/**
+ *
+ */
+package jenjinn.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import jenjinn.boardstate.BoardState;
+import jenjinn.boardstate.StartStateGenerator;
+import jenjinn.moves.ChessMove;
+import jenjinn.pgn.BadPgnException;
+import jenjinn.pgn.PgnGameConverter;
+import jflow.seq.Seq;
+
+/**
+ * Loads the fixed positions the benchmarks run over from the games used by
+ * the integration tests.
+ *
+ * @author ThomasB
+ */
+public final class BenchmarkPositions
+{
+	private static final String PGN_LOCATION = "/jenjinn/integrationtests/";
+	private static final String PGN_LISTING = "integrationtestpgns";
+
+	private BenchmarkPositions()
+	{
+	}
+
+	/**
+	 * @param gamesPerFile
+	 *            The number of games to take from the start of each file.
+	 * @return the midgame positions of the first games in every integration test
+	 *         pgn file, the fixed corpus the hot path benchmarks run over.
+	 */
+	public static Seq<BoardState> corpus(int gamesPerFile)
+	{
+		return pgnFiles().flow()
+				.flatMap(pgnFile -> midgamePositions(pgnFile, gamesPerFile).flow())
+				.toSeq();
+	}
+
+	/**
+	 * @param pgnFile
+	 *            The name of one of the integration test pgn files.
+	 * @param nGames
+	 *            The number of games to take from the start of the file.
+	 * @return the position reached halfway through each of the first n games in
+	 *         the file, the same positions the move search integration test uses.
+	 */
+	public static Seq<BoardState> midgamePositions(String pgnFile, int nGames)
+	{
+		return loadGames(pgnFile, nGames).map(BenchmarkPositions::playHalfway);
+	}
+
+	/**
+	 * @param nGames
+	 *            The number of games to take from the start of each file.
+	 * @return every position reached in the first games of every integration test
+	 *         pgn file.
+	 */
+	public static Seq<BoardState> allPositions(int nGames)
+	{
+		List<BoardState> positions = new ArrayList<>();
+		for (String pgnFile : pgnFiles()) {
+			for (Seq<ChessMove> game : loadGames(pgnFile, nGames)) {
+				BoardState state = StartStateGenerator.createStartBoard();
+				for (ChessMove move : game) {
+					positions.add(state.copy());
+					move.makeMove(state);
+				}
+			}
+		}
+		return Seq.copy(positions);
+	}
+
+	private static BoardState playHalfway(Seq<ChessMove> game)
+	{
+		BoardState state = StartStateGenerator.createStartBoard();
+		game.flow().take(game.size() / 2).forEach(mv -> mv.makeMove(state));
+		return state;
+	}
+
+	private static Seq<String> pgnFiles()
+	{
+		try (BufferedReader reader = openPgnFile(PGN_LISTING)) {
+			List<String> files = new ArrayList<>();
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (!line.trim().isEmpty()) {
+					files.add(line.trim());
+				}
+			}
+			return Seq.copy(files);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static Seq<Seq<ChessMove>> loadGames(String pgnFile, int nGames)
+	{
+		List<Seq<ChessMove>> games = new ArrayList<>(nGames);
+		try (BufferedReader reader = openPgnFile(pgnFile)) {
+			String game;
+			while (games.size() < nGames && (game = reader.readLine()) != null) {
+				games.add(PgnGameConverter.parse(game));
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} catch (BadPgnException e) {
+			throw new IllegalStateException(e);
+		}
+		return Seq.copy(games);
+	}
+
+	private static BufferedReader openPgnFile(String pgnFile)
+	{
+		InputStream is = BenchmarkPositions.class.getResourceAsStream(PGN_LOCATION + pgnFile);
+		if (is == null) {
+			throw new NullPointerException("Resource: " + PGN_LOCATION + pgnFile);
+		}
+		return new BufferedReader(new InputStreamReader(is));
+	}
+}
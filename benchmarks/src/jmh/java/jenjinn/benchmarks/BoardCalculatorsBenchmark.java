@@ -0,0 +1,104 @@
+/**
+ *
+ */
+package jenjinn.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import jenjinn.base.Side;
+import jenjinn.base.Square;
+import jenjinn.boardstate.BoardState;
+import jenjinn.boardstate.DetailedPieceLocations;
+import jenjinn.boardstate.calculators.LegalMoves;
+import jenjinn.boardstate.calculators.PinnedPieces;
+import jenjinn.boardstate.calculators.SquareControl;
+import jflow.seq.Seq;
+
+/**
+ * Measures the calculations in {@link jenjinn.boardstate.calculators} which
+ * the search performs at every node, each over the whole benchmark corpus.
+ * The flows returned by {@link LegalMoves} are lazy so they are collected for
+ * the measurement to include the generation itself.
+ *
+ * @author ThomasB
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BoardCalculatorsBenchmark
+{
+	private Seq<BoardState> positions;
+
+	@Setup
+	public void loadPositions()
+	{
+		positions = BenchmarkPositions.corpus(3);
+	}
+
+	@Benchmark
+	public void allMoves(Blackhole blackhole)
+	{
+		for (BoardState position : positions) {
+			blackhole.consume(LegalMoves.getAllMoves(position).toSeq());
+		}
+	}
+
+	@Benchmark
+	public void attacks(Blackhole blackhole)
+	{
+		for (BoardState position : positions) {
+			blackhole.consume(LegalMoves.getAttacks(position).toSeq());
+		}
+	}
+
+	@Benchmark
+	public void squareControl(Blackhole blackhole)
+	{
+		for (BoardState position : positions) {
+			blackhole.consume(SquareControl.calculate(position, Side.WHITE));
+			blackhole.consume(SquareControl.calculate(position, Side.BLACK));
+		}
+	}
+
+	@Benchmark
+	public void pinnedPieces(Blackhole blackhole)
+	{
+		for (BoardState position : positions) {
+			blackhole.consume(PinnedPieces.in(position));
+		}
+	}
+
+	@Benchmark
+	public void calculateHash(Blackhole blackhole)
+	{
+		for (BoardState position : positions) {
+			blackhole.consume(position.calculateHash());
+		}
+	}
+
+	@Benchmark
+	public void pieceLookup(Blackhole blackhole)
+	{
+		for (BoardState position : positions) {
+			DetailedPieceLocations pieceLocations = position.getPieceLocations();
+			for (Square square : Square.ALL) {
+				blackhole.consume(pieceLocations.getPieceAt(square));
+			}
+		}
+	}
+}
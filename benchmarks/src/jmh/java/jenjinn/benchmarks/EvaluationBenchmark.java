@@ -0,0 +1,158 @@
+/**
+ *
+ */
+package jenjinn.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import jenjinn.boardstate.BoardState;
+import jenjinn.boardstate.calculators.LegalMoves;
+import jenjinn.eval.DevelopmentEvaluator;
+import jenjinn.eval.KingSafetyEvaluator;
+import jenjinn.eval.PawnStructureEvaluator;
+import jenjinn.eval.PieceLocationEvaluator;
+import jenjinn.eval.StateEvaluator;
+import jenjinn.eval.StaticExchangeEvaluator;
+import jenjinn.moves.ChessMove;
+import jenjinn.moves.EnpassantMove;
+import jenjinn.pieces.Piece;
+import jflow.seq.Seq;
+
+/**
+ * Measures the full static evaluation and each of its components separately,
+ * along with the static exchange evaluation of every capture, over the
+ * benchmark corpus. The evaluators are configured as the quiescence search
+ * configures them.
+ *
+ * @author ThomasB
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EvaluationBenchmark
+{
+	private static final int PAWN_TABLE_SIZE = 10;
+
+	private Seq<BoardState> positions;
+	private final StateEvaluator stateEvaluator = new StateEvaluator(PAWN_TABLE_SIZE);
+	private final DevelopmentEvaluator development = new DevelopmentEvaluator();
+	private final KingSafetyEvaluator kingSafety = new KingSafetyEvaluator();
+	private final PieceLocationEvaluator pieceLocation = new PieceLocationEvaluator();
+	private final PawnStructureEvaluator pawnStructure = new PawnStructureEvaluator(PAWN_TABLE_SIZE);
+	private final StaticExchangeEvaluator see = new StaticExchangeEvaluator();
+
+	// The captures in the corpus which the quiescence search passes to the see.
+	private BoardState[] captureStates;
+	private ChessMove[] captures;
+
+	@Setup
+	public void loadPositions()
+	{
+		positions = BenchmarkPositions.corpus(3);
+		List<BoardState> states = new ArrayList<>();
+		List<ChessMove> moves = new ArrayList<>();
+		for (BoardState position : positions) {
+			for (ChessMove capture : LegalMoves.getAttacks(position).toSeq()) {
+				if (!(capture instanceof EnpassantMove)) {
+					states.add(position);
+					moves.add(capture);
+				}
+			}
+		}
+		captureStates = states.toArray(new BoardState[states.size()]);
+		captures = moves.toArray(new ChessMove[moves.size()]);
+	}
+
+	@Benchmark
+	public void stateEvaluator(Blackhole blackhole)
+	{
+		for (BoardState position : positions) {
+			blackhole.consume(stateEvaluator.evaluate(position));
+		}
+	}
+
+	/**
+	 * The cost of a stand-pat which exits lazily before any computed term.
+	 */
+	@Benchmark
+	public void stateEvaluatorIncremental(Blackhole blackhole)
+	{
+		for (BoardState position : positions) {
+			blackhole.consume(stateEvaluator.evaluateIncremental(position));
+		}
+	}
+
+	@Benchmark
+	public void development(Blackhole blackhole)
+	{
+		for (BoardState position : positions) {
+			blackhole.consume(development.evaluate(position));
+		}
+	}
+
+	@Benchmark
+	public void kingSafety(Blackhole blackhole)
+	{
+		for (BoardState position : positions) {
+			blackhole.consume(kingSafety.evaluate(position));
+		}
+	}
+
+	@Benchmark
+	public void pieceLocation(Blackhole blackhole)
+	{
+		for (BoardState position : positions) {
+			blackhole.consume(pieceLocation.evaluate(position));
+		}
+	}
+
+	/**
+	 * After the first pass over the corpus this mostly measures pawn table hits.
+	 */
+	@Benchmark
+	public void pawnStructure(Blackhole blackhole)
+	{
+		for (BoardState position : positions) {
+			blackhole.consume(pawnStructure.evaluate(position));
+		}
+	}
+
+	/**
+	 * The cost of a pawn table miss.
+	 */
+	@Benchmark
+	public void pawnStructureUncached(Blackhole blackhole)
+	{
+		for (BoardState position : positions) {
+			long wpawns = position.getPieceLocations().locationsOf(Piece.WHITE_PAWN);
+			long bpawns = position.getPieceLocations().locationsOf(Piece.BLACK_PAWN);
+			blackhole.consume(PawnStructureEvaluator.calculateOverallScore(wpawns, bpawns));
+		}
+	}
+
+	@Benchmark
+	public void staticExchange(Blackhole blackhole)
+	{
+		for (int i = 0; i < captures.length; i++) {
+			ChessMove capture = captures[i];
+			blackhole.consume(see.isGoodExchange(capture.getSource(), capture.getTarget(), captureStates[i]));
+		}
+	}
+}
@@ -0,0 +1,125 @@
+/**
+ *
+ */
+package jenjinn.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jenjinn.boardstate.BoardState;
+import jenjinn.boardstate.MoveReversalData;
+import jenjinn.boardstate.calculators.LegalMoves;
+import jenjinn.moves.CastleMove;
+import jenjinn.moves.ChessMove;
+import jenjinn.moves.EnpassantMove;
+import jenjinn.moves.PromotionMove;
+import jenjinn.moves.StandardMove;
+import jflow.seq.Seq;
+
+/**
+ * Measures making and then reversing a move for each of the move types. The
+ * samples are the legal moves of the given type available in the positions of
+ * the integration test games, so the rarer types are sampled from many more
+ * positions than the standard moves.
+ *
+ * @author ThomasB
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MakeUnmakeBenchmark
+{
+	private static final int SAMPLE_SIZE = 500;
+
+	@Param({ "StandardMove", "EnpassantMove", "CastleMove", "PromotionMove" })
+	public String moveType;
+
+	private final MoveReversalData reverser = new MoveReversalData();
+	private BoardState[] states;
+	private ChessMove[] moves;
+	private int next = 0;
+
+	@Setup
+	public void sampleMoves()
+	{
+		Class<? extends ChessMove> sampledType = moveClass(moveType);
+		List<BoardState> sampledStates = new ArrayList<>(SAMPLE_SIZE);
+		List<ChessMove> sampledMoves = new ArrayList<>(SAMPLE_SIZE);
+		Seq<BoardState> positions = BenchmarkPositions.allPositions(5);
+		for (int i = 0; i < positions.size() && sampledMoves.size() < SAMPLE_SIZE; i++) {
+			BoardState position = positions.get(i);
+			for (ChessMove move : LegalMoves.getAllMoves(position).toSeq()) {
+				if (sampledType.isInstance(move) && sampledMoves.size() < SAMPLE_SIZE) {
+					// Each sample owns its state since they are mutated in turn.
+					sampledStates.add(position.copy());
+					sampledMoves.add(move);
+				}
+			}
+		}
+		if (sampledMoves.isEmpty()) {
+			throw new IllegalStateException("No " + moveType + " found in the benchmark positions");
+		}
+		states = sampledStates.toArray(new BoardState[sampledStates.size()]);
+		moves = sampledMoves.toArray(new ChessMove[sampledMoves.size()]);
+	}
+
+	private static Class<? extends ChessMove> moveClass(String moveType)
+	{
+		switch (moveType) {
+		case "StandardMove":
+			return StandardMove.class;
+		case "EnpassantMove":
+			return EnpassantMove.class;
+		case "CastleMove":
+			return CastleMove.class;
+		case "PromotionMove":
+			return PromotionMove.class;
+		default:
+			throw new IllegalArgumentException(moveType);
+		}
+	}
+
+	/**
+	 * Each invocation makes and reverses a single move, cycling through the
+	 * samples, so the result is the time per move.
+	 */
+	@Benchmark
+	public BoardState makeAndReverse()
+	{
+		int i = next;
+		next = i + 1 == moves.length ? 0 : i + 1;
+		moves[i].makeMove(states[i], reverser);
+		moves[i].reverseMove(states[i], reverser);
+		return states[i];
+	}
+
+	/**
+	 * As {@link #makeAndReverse()} but using the undo stack of the state rather
+	 * than a record owned by the caller.
+	 */
+	@Benchmark
+	public BoardState makeAndReverseOnStack()
+	{
+		int i = next;
+		next = i + 1 == moves.length ? 0 : i + 1;
+		moves[i].makeMove(states[i]);
+		moves[i].reverseMove(states[i]);
+		return states[i];
+	}
+}
@@ -0,0 +1,105 @@
+/**
+ *
+ */
+package jenjinn.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import jenjinn.boardstate.BoardState;
+import jenjinn.boardstate.calculators.LegalMoves;
+import jenjinn.boardstate.calculators.MoveGenerator;
+import jenjinn.moves.ChessMove;
+import jflow.seq.Seq;
+
+/**
+ * Compares generating every legal move in a set of midgame positions using the
+ * {@link jflow.iterators.Flow} based {@link LegalMoves} against the buffer based
+ * {@link MoveGenerator}. Run with '-prof gc' to compare the allocation rates.
+ *
+ * @author ThomasB
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoveGenerationBenchmark
+{
+	private Seq<BoardState> positions;
+	private final MoveGenerator generator = new MoveGenerator();
+	private final int[] buffer = new int[MoveGenerator.MAX_MOVES];
+
+	@Setup
+	public void loadPositions()
+	{
+		positions = BenchmarkPositions.midgamePositions("BishopsOpening", 50);
+	}
+
+	@Benchmark
+	public void flowGeneration(Blackhole blackhole)
+	{
+		for (BoardState position : positions) {
+			blackhole.consume(LegalMoves.getAllMoves(position).toSeq());
+		}
+	}
+
+	/**
+	 * Iterates the flow as the search does when it only needs to know whether
+	 * any legal move exists.
+	 */
+	@Benchmark
+	public void flowFirstMove(Blackhole blackhole)
+	{
+		for (BoardState position : positions) {
+			blackhole.consume(LegalMoves.getAllMoves(position).nextOption());
+		}
+	}
+
+	@Benchmark
+	public void bufferGeneration(Blackhole blackhole)
+	{
+		for (BoardState position : positions) {
+			generator.initialise(position);
+			int end = generator.generateQuiets(buffer, generator.generateCaptures(buffer, 0));
+			blackhole.consume(end);
+		}
+	}
+
+	/**
+	 * Also decodes each move into its {@link ChessMove} as the search must do
+	 * before making it.
+	 */
+	@Benchmark
+	public void bufferGenerationDecoded(Blackhole blackhole)
+	{
+		for (BoardState position : positions) {
+			generator.initialise(position);
+			int end = generator.generateQuiets(buffer, generator.generateCaptures(buffer, 0));
+			for (int i = 0; i < end; i++) {
+				blackhole.consume(ChessMove.decode(buffer[i]));
+			}
+		}
+	}
+
+	@Benchmark
+	public void bufferCapturesOnly(Blackhole blackhole)
+	{
+		for (BoardState position : positions) {
+			generator.initialise(position);
+			blackhole.consume(generator.generateCaptures(buffer, 0));
+		}
+	}
+}
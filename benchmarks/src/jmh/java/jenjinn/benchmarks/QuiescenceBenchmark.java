@@ -0,0 +1,91 @@
+/**
+ *
+ */
+package jenjinn.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jenjinn.boardstate.BoardState;
+import jenjinn.boardstate.calculators.LegalMoves;
+import jenjinn.movesearch.QuiescentSearcher;
+import jflow.seq.Seq;
+
+/**
+ * Measures a full width quiescence search from the positions of the benchmark
+ * corpus with the most captures available, where the time is dominated by
+ * capture generation, static exchange evaluation and making captures. The
+ * secondary 'nodes' result gives the node throughput. When lazy evaluation is
+ * enabled 'evaluations' counts the stand-pats and 'lazyExits' those which
+ * skipped at least one expensive term.
+ *
+ * @author ThomasB
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QuiescenceBenchmark
+{
+	private static final int MIN_CAPTURES = 4;
+
+	@Param({ "true", "false" })
+	private boolean lazyEvaluation;
+
+	private Seq<BoardState> positions;
+	private QuiescentSearcher searcher;
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class QuiescenceCounters
+	{
+		public long nodes, evaluations, lazyExits;
+
+		@Setup(Level.Iteration)
+		public void clear()
+		{
+			nodes = 0;
+			evaluations = 0;
+			lazyExits = 0;
+		}
+	}
+
+	@Setup
+	public void loadPositions()
+	{
+		positions = BenchmarkPositions.corpus(3)
+				.filter(position -> LegalMoves.getAttacks(position).count() >= MIN_CAPTURES);
+		searcher = new QuiescentSearcher();
+		searcher.setLazyEvaluation(lazyEvaluation);
+	}
+
+	@Benchmark
+	public int search(QuiescenceCounters counters)
+	{
+		long nodesBefore = searcher.getNodeCount();
+		long evaluationsBefore = searcher.getLazyEvaluationCount(), exitsBefore = searcher.getLazyExitCount();
+		int scoreSum = 0;
+		for (BoardState position : positions) {
+			scoreSum += searcher.search(position);
+		}
+		counters.nodes += searcher.getNodeCount() - nodesBefore;
+		counters.evaluations += searcher.getLazyEvaluationCount() - evaluationsBefore;
+		counters.lazyExits += searcher.getLazyExitCount() - exitsBefore;
+		return scoreSum;
+	}
+}
@@ -0,0 +1,87 @@
+/**
+ *
+ */
+package jenjinn.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jenjinn.boardstate.BoardState;
+import jenjinn.movesearch.TreeSearcher;
+import jflow.seq.Seq;
+
+/**
+ * Measures how the time taken to search the move search integration test
+ * positions to a fixed depth scales with the number of search threads. The
+ * secondary 'nodes' result gives the combined node throughput of all threads.
+ *
+ * @author ThomasB
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class SearchScalingBenchmark
+{
+	@Param({ "1", "2", "4", "8", "16", "32" })
+	public int threads;
+
+	@Param({ "5" })
+	public int depth;
+
+	private Seq<BoardState> positions;
+	private TreeSearcher searcher;
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class SearchCounters
+	{
+		public long nodes;
+
+		@Setup(Level.Iteration)
+		public void clear()
+		{
+			nodes = 0;
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void loadPositions()
+	{
+		positions = BenchmarkPositions.midgamePositions("BishopsOpening", 10);
+	}
+
+	/**
+	 * A fresh searcher each iteration so no iteration benefits from a table
+	 * filled by the last.
+	 */
+	@Setup(Level.Iteration)
+	public void createSearcher()
+	{
+		searcher = new TreeSearcher(threads);
+	}
+
+	@Benchmark
+	public void timeToDepth(SearchCounters counters)
+	{
+		for (BoardState position : positions) {
+			searcher.getBestMoveToDepth(position.copy(), depth);
+			counters.nodes += searcher.getNodeCount();
+		}
+	}
+}
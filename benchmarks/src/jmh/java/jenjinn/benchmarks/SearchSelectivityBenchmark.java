@@ -0,0 +1,97 @@
+/**
+ *
+ */
+package jenjinn.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jenjinn.boardstate.BoardState;
+import jenjinn.movesearch.SearchStatistics;
+import jenjinn.movesearch.TreeSearcher;
+import jflow.seq.Seq;
+
+/**
+ * Compares the time taken to search the move search integration test
+ * positions to a fixed depth with null move pruning and late move reductions
+ * each switched on and off. The secondary 'nodes' result is the total number
+ * of nodes visited per operation, of which 'quiescentNodes' were visited by
+ * the quiescent search, and 'selectiveDepth' totals the selective depths of
+ * the searches.
+ *
+ * @author ThomasB
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class SearchSelectivityBenchmark
+{
+	@Param({ "true", "false" })
+	public boolean nullMovePruning;
+
+	@Param({ "true", "false" })
+	public boolean lateMoveReductions;
+
+	@Param({ "5" })
+	public int depth;
+
+	private Seq<BoardState> positions;
+	private TreeSearcher searcher;
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class SearchCounters
+	{
+		public long nodes, quiescentNodes, selectiveDepth;
+
+		@Setup(Level.Iteration)
+		public void clear()
+		{
+			nodes = 0;
+			quiescentNodes = 0;
+			selectiveDepth = 0;
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void loadPositions()
+	{
+		positions = BenchmarkPositions.midgamePositions("BishopsOpening", 10);
+	}
+
+	@Setup(Level.Invocation)
+	public void createSearcher()
+	{
+		searcher = new TreeSearcher();
+		searcher.setNullMovePruning(nullMovePruning);
+		searcher.setLateMoveReductions(lateMoveReductions);
+	}
+
+	@Benchmark
+	public void timeToDepth(SearchCounters counters)
+	{
+		for (BoardState position : positions) {
+			searcher.getBestMoveToDepth(position.copy(), depth);
+			SearchStatistics statistics = searcher.getLastSearchStatistics().get();
+			counters.nodes += statistics.getTotalNodes();
+			counters.quiescentNodes += statistics.getQuiescentNodes();
+			counters.selectiveDepth += statistics.getSelectiveDepth();
+		}
+	}
+}
@@ -0,0 +1,53 @@
+/**
+ *
+ */
+package jenjinn.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jenjinn.base.Square;
+import jenjinn.bitboards.Bitboards;
+import jenjinn.bitboards.MagicDatabase;
+
+/**
+ * Measures the cold start cost of initialising the bitboards, once in each of
+ * many forks, with the magic move databases either read from the resource
+ * written at build time or generated from scratch.
+ *
+ * @author ThomasB
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class StartupBenchmark
+{
+	@Param({ "resource", "generated" })
+	public String source;
+
+	@Setup
+	public void selectSource()
+	{
+		System.setProperty(MagicDatabase.GENERATE_PROPERTY, Boolean.toString(source.equals("generated")));
+	}
+
+	@Benchmark
+	public long initialiseBitboards()
+	{
+		return Bitboards.rookControl(Square.D4, 0L);
+	}
+}